@@ -0,0 +1,86 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.luxiliu.android.benchmark.labellayout;
+
+import android.os.Bundle;
+import android.os.Handler;
+import android.util.Log;
+import android.widget.TextView;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import java.util.List;
+
+
+/**
+ * BenchmarkActivity runs LabelBenchmark on main thread, one benchmark per message so results show up on
+ * screen as they're measured, and prints them to logcat with tag "LabelBenchmark". Start it with
+ * "adb shell am start -W -n com.luxiliu.android.benchmark.labellayout/.BenchmarkActivity" and collect
+ * results with "adb logcat -s LabelBenchmark"
+ */
+public class BenchmarkActivity extends AppCompatActivity {
+    private static final String TAG = "LabelBenchmark";
+
+    private final Handler mHandler = new Handler();
+    private final StringBuilder mResults = new StringBuilder();
+
+    private TextView mResultText;
+    private List<LabelBenchmark.Benchmark> mBenchmarks;
+    private int mNextBenchmark;
+
+    private final Runnable mRunNextBenchmark = new Runnable() {
+        @Override
+        public void run() {
+            if (mNextBenchmark == mBenchmarks.size()) {
+                Log.i(TAG, "Done");
+                appendResult("Done");
+                return;
+            }
+
+            LabelBenchmark.Result result = mBenchmarks.get(mNextBenchmark++).run();
+            Log.i(TAG, result.toString());
+            appendResult(result.toString());
+
+            // Posted again rather than looped, so the results are drawn between benchmarks
+            mHandler.post(this);
+        }
+    };
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        setContentView(R.layout.activity_benchmark);
+
+        mResultText = findViewById(R.id.result_text);
+
+        // Views are created and drawn, so benchmarks run on main thread
+        mBenchmarks = new LabelBenchmark(this).getBenchmarks();
+        mHandler.post(mRunNextBenchmark);
+    }
+
+    @Override
+    protected void onDestroy() {
+        mHandler.removeCallbacks(mRunNextBenchmark);
+
+        super.onDestroy();
+    }
+
+    private void appendResult(String line) {
+        mResults.append(line).append('\n');
+        mResultText.setText(mResults);
+    }
+}
@@ -0,0 +1,347 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.luxiliu.android.benchmark.labellayout;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.drawable.ColorDrawable;
+import android.os.Debug;
+import android.view.LayoutInflater;
+import android.view.View;
+
+import com.luxiliu.android.widget.LabelAttributeCache;
+import com.luxiliu.android.widget.LabelLayout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+
+/**
+ * LabelBenchmark measures LabelLayout draw, inflate and update paths, reporting ns/op and allocations/op.
+ * It runs on device from BenchmarkActivity, or on the JVM from LabelBenchmarkTest with
+ * "./gradlew :benchmark:benchmark"
+ */
+final class LabelBenchmark {
+    private static final int WARMUP_ITERATIONS = 200;
+    private static final int DRAW_ITERATIONS = 2000;
+    private static final int INFLATE_ITERATIONS = 300;
+
+    private static final int VIEW_SIZE_DP = 160;
+
+    private static final String SHORT_TEXT = "NEW";
+    private static final String LONG_TEXT = "LIMITED OFFER";
+
+    private final Context mContext;
+    private final float mDensity;
+    private final AllocationCounter mAllocationCounter;
+
+    /**
+     * Create a benchmark counting allocations with {@link Debug}, only available on device
+     *
+     * @param context The context creating views
+     */
+    LabelBenchmark(Context context) {
+        this(context, new DebugAllocationCounter());
+    }
+
+    /**
+     * Create a benchmark counting allocations with the given counter
+     *
+     * @param context           The context creating views
+     * @param allocationCounter The counter of allocations on current thread
+     */
+    LabelBenchmark(Context context, AllocationCounter allocationCounter) {
+        mContext = context;
+        mDensity = context.getResources().getDisplayMetrics().density;
+        mAllocationCounter = allocationCounter;
+    }
+
+    /**
+     * Run all benchmarks
+     *
+     * @param listener The listener receiving each result as soon as it's measured
+     * @return All results
+     */
+    List<Result> runAll(Listener listener) {
+        List<Result> results = new ArrayList<>();
+        for (Benchmark benchmark : getBenchmarks()) {
+            results.add(report(listener, benchmark.run()));
+        }
+
+        return results;
+    }
+
+    /**
+     * Get all benchmarks, so they can be run one at a time, e.g. a message each on main thread
+     *
+     * @return All benchmarks, in running order
+     */
+    List<Benchmark> getBenchmarks() {
+        List<Benchmark> benchmarks = new ArrayList<>();
+
+        // Inflation, with and without attribute cache
+        for (final boolean attributeCacheEnabled : new boolean[]{false, true}) {
+            benchmarks.add(new Benchmark() {
+                @Override
+                public Result run() {
+                    return measureInflate(attributeCacheEnabled);
+                }
+            });
+        }
+
+        // Draw and update across every label configuration
+        for (final LabelLayout.Gravity gravity : LabelLayout.Gravity.values()) {
+            for (final LabelLayout.TextDirection textDirection : LabelLayout.TextDirection.values()) {
+                for (final String text : new String[]{SHORT_TEXT, LONG_TEXT}) {
+                    for (final LabelSize labelSize : LabelSize.values()) {
+                        benchmarks.add(new Benchmark() {
+                            @Override
+                            public Result run() {
+                                return measureDraw(gravity, textDirection, text, labelSize, false);
+                            }
+                        });
+                        benchmarks.add(new Benchmark() {
+                            @Override
+                            public Result run() {
+                                return measureDraw(gravity, textDirection, text, labelSize, true);
+                            }
+                        });
+                        benchmarks.add(new Benchmark() {
+                            @Override
+                            public Result run() {
+                                return measureUpdate(gravity, textDirection, text, labelSize);
+                            }
+                        });
+                    }
+                }
+            }
+        }
+
+        return benchmarks;
+    }
+
+    private static Result report(Listener listener, Result result) {
+        if (listener != null) {
+            listener.onResult(result);
+        }
+
+        return result;
+    }
+
+    private Result measureInflate(boolean attributeCacheEnabled) {
+        final boolean wasEnabled = LabelAttributeCache.isEnabled();
+        LabelAttributeCache.setEnabled(attributeCacheEnabled);
+
+        final LayoutInflater inflater = LayoutInflater.from(mContext);
+        Result result = measure(String.format(Locale.US, "inflate attributeCache=%b", attributeCacheEnabled), INFLATE_ITERATIONS, new Operation() {
+            @Override
+            public void run(int iteration) {
+                inflater.inflate(R.layout.benchmark_label, null, false);
+            }
+        });
+
+        LabelAttributeCache.setEnabled(wasEnabled);
+        return result;
+    }
+
+    private Result measureDraw(LabelLayout.Gravity gravity, LabelLayout.TextDirection textDirection, String text,
+                               LabelSize labelSize, boolean cacheEnabled) {
+        final LabelLayout labelLayout = createLabelLayout(gravity, textDirection, text, labelSize);
+        labelLayout.setLabelCacheEnabled(cacheEnabled);
+        final Canvas canvas = createCanvas();
+
+        String name = String.format(Locale.US, "draw %s %s %s %s cache=%b", gravity, textDirection, text.length(), labelSize, cacheEnabled);
+        return measure(name, DRAW_ITERATIONS, new Operation() {
+            @Override
+            public void run(int iteration) {
+                labelLayout.draw(canvas);
+            }
+        });
+    }
+
+    private Result measureUpdate(LabelLayout.Gravity gravity, LabelLayout.TextDirection textDirection, final String text,
+                                 LabelSize labelSize) {
+        final LabelLayout labelLayout = createLabelLayout(gravity, textDirection, text, labelSize);
+        final Canvas canvas = createCanvas();
+        final String otherText = text + "!";
+
+        String name = String.format(Locale.US, "setText+draw %s %s %s %s", gravity, textDirection, text.length(), labelSize);
+        return measure(name, DRAW_ITERATIONS, new Operation() {
+            @Override
+            public void run(int iteration) {
+                labelLayout.setLabelText(iteration % 2 == 0 ? otherText : text);
+                labelLayout.draw(canvas);
+            }
+        });
+    }
+
+    private LabelLayout createLabelLayout(LabelLayout.Gravity gravity, LabelLayout.TextDirection textDirection, String text,
+                                          LabelSize labelSize) {
+        LabelLayout labelLayout = new LabelLayout(mContext);
+        labelLayout.edit()
+                .distance(dp(labelSize.distanceDp))
+                .height(dp(labelSize.heightDp))
+                .background(new ColorDrawable(Color.BLACK))
+                .gravity(gravity)
+                .text(text)
+                .textSize(dp(labelSize.textSizeDp))
+                .textColor(Color.WHITE)
+                .textDirection(textDirection)
+                .apply();
+
+        int viewSize = dp(VIEW_SIZE_DP);
+        labelLayout.measure(View.MeasureSpec.makeMeasureSpec(viewSize, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(viewSize, View.MeasureSpec.EXACTLY));
+        labelLayout.layout(0, 0, viewSize, viewSize);
+        return labelLayout;
+    }
+
+    private Canvas createCanvas() {
+        int viewSize = dp(VIEW_SIZE_DP);
+        return new Canvas(Bitmap.createBitmap(viewSize, viewSize, Bitmap.Config.ARGB_8888));
+    }
+
+    private int dp(int value) {
+        return (int) (value * mDensity + 0.5f);
+    }
+
+    private Result measure(String name, int iterations, Operation operation) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            operation.run(i);
+        }
+
+        mAllocationCounter.start();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            operation.run(i);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocations = mAllocationCounter.stop();
+
+        return new Result(name, elapsed / iterations, allocations / (double) iterations, mAllocationCounter.getUnit());
+    }
+
+    private interface Operation {
+        void run(int iteration);
+    }
+
+    /**
+     * Counter of allocations on current thread
+     */
+    interface AllocationCounter {
+        /**
+         * Start counting allocations
+         */
+        void start();
+
+        /**
+         * Stop counting allocations
+         *
+         * @return The allocations since start
+         */
+        long stop();
+
+        /**
+         * Get the unit of counted allocations
+         *
+         * @return The unit of allocations, e.g. "allocs" or "bytes"
+         */
+        String getUnit();
+    }
+
+    // Counts allocated objects with the allocation tracker of Android runtime
+    @SuppressWarnings("deprecation")
+    private static final class DebugAllocationCounter implements AllocationCounter {
+        @Override
+        public void start() {
+            Debug.startAllocCounting();
+            Debug.resetThreadAllocCount();
+        }
+
+        @Override
+        public long stop() {
+            int allocations = Debug.getThreadAllocCount();
+            Debug.stopAllocCounting();
+            return allocations;
+        }
+
+        @Override
+        public String getUnit() {
+            return "allocs";
+        }
+    }
+
+    /**
+     * A single benchmark, which creates and draws views so it must run on main thread
+     */
+    interface Benchmark {
+        /**
+         * Run the benchmark
+         *
+         * @return The result
+         */
+        Result run();
+    }
+
+    /**
+     * Listener receiving benchmark results
+     */
+    interface Listener {
+        void onResult(Result result);
+    }
+
+    /**
+     * Label sizes used by benchmarks, in dp
+     */
+    private enum LabelSize {
+        SMALL(16, 16, 10), LARGE(48, 32, 20);
+
+        final int distanceDp;
+        final int heightDp;
+        final int textSizeDp;
+
+        LabelSize(int distanceDp, int heightDp, int textSizeDp) {
+            this.distanceDp = distanceDp;
+            this.heightDp = heightDp;
+            this.textSizeDp = textSizeDp;
+        }
+    }
+
+    /**
+     * Result of a single benchmark
+     */
+    static final class Result {
+        final String name;
+        final long nanosPerOp;
+        final double allocationsPerOp;
+        final String allocationUnit;
+
+        Result(String name, long nanosPerOp, double allocationsPerOp, String allocationUnit) {
+            this.name = name;
+            this.nanosPerOp = nanosPerOp;
+            this.allocationsPerOp = allocationsPerOp;
+            this.allocationUnit = allocationUnit;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%-52s %9d ns/op %8.2f %s/op", name, nanosPerOp, allocationsPerOp, allocationUnit);
+        }
+    }
+}
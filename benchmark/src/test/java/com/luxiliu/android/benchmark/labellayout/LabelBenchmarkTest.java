@@ -0,0 +1,73 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.luxiliu.android.benchmark.labellayout;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.junit.Assert.assertFalse;
+
+
+/**
+ * LabelBenchmarkTest runs LabelBenchmark on the JVM, printing results to the console. Run it with
+ * "./gradlew :benchmark:benchmark". Timings include Robolectric's graphics shadows, so they are only
+ * comparable between runs on the same machine, while allocated bytes/op track the library itself
+ */
+@RunWith(RobolectricTestRunner.class)
+public class LabelBenchmarkTest {
+    @Test
+    public void runAll() {
+        LabelBenchmark benchmark = new LabelBenchmark(RuntimeEnvironment.application, new ThreadAllocationCounter());
+        List<LabelBenchmark.Result> results = benchmark.runAll(new LabelBenchmark.Listener() {
+            @Override
+            public void onResult(LabelBenchmark.Result result) {
+                System.out.println(result);
+            }
+        });
+
+        assertFalse("No benchmark ran", results.isEmpty());
+    }
+
+    // Counts bytes allocated on current thread, available on HotSpot and OpenJDK
+    private static final class ThreadAllocationCounter implements LabelBenchmark.AllocationCounter {
+        private final com.sun.management.ThreadMXBean mThreadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        private long mStart;
+
+        @Override
+        public void start() {
+            mStart = allocatedBytes();
+        }
+
+        @Override
+        public long stop() {
+            return allocatedBytes() - mStart;
+        }
+
+        @Override
+        public String getUnit() {
+            return "bytes";
+        }
+
+        private long allocatedBytes() {
+            return mThreadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.luxiliu.android.widget;
+
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+
+import androidx.collection.LruCache;
+
+
+/**
+ * AutoSizeCache keeps text sizes picked by auto size, shared by all LabelLayouts, so the search
+ * only runs the first time a text is drawn on a label of given size
+ */
+public final class AutoSizeCache {
+    private static final int DEFAULT_MAX_SIZE = 256;
+
+    private static final LruCache<Key, Integer> sCache = new LruCache<>(DEFAULT_MAX_SIZE);
+
+    private AutoSizeCache() {
+    }
+
+    /**
+     * Set the maximum number of cached text sizes
+     *
+     * @param maxSize The maximum number of cached text sizes
+     */
+    public static void setMaxSize(int maxSize) {
+        sCache.resize(maxSize);
+    }
+
+    /**
+     * Get the maximum number of cached text sizes
+     *
+     * @return The maximum number of cached text sizes
+     */
+    public static int getMaxSize() {
+        return sCache.maxSize();
+    }
+
+    /**
+     * Release all cached text sizes
+     */
+    public static void clear() {
+        sCache.evictAll();
+    }
+
+    /**
+     * Get the style actually drawing text, with the text size picked by auto size
+     *
+     * @param text  The text of label
+     * @param style The style of label, with auto size enabled
+     * @return The style with the largest text size in auto size range which fits the label
+     */
+    static LabelStyle resolve(String text, LabelStyle style) {
+        final int width = LabelGeometry.calculateTextWidth(style.getDistance(), style.getHeight());
+        final int height = style.getHeight();
+
+        Key key = new Key(text, width, height, style);
+        Integer textSize = sCache.get(key);
+        if (textSize == null) {
+            textSize = search(text, width, height, style);
+            sCache.put(key, textSize);
+        }
+
+        return textSize == style.getTextSize() ? style : new LabelStyle.Builder(style).setTextSize(textSize).build();
+    }
+
+    // Binary search the largest text size which fits, or the minimum size if none fits
+    private static int search(String text, int width, int height, LabelStyle style) {
+        // Own copy, the shared paint may be drawing on another thread
+        final Paint paint = new Paint(style.getTextPaint());
+        final Rect bounds = new Rect();
+
+        int low = Math.max(style.getAutoSizeMinTextSize(), 1);
+        // A text size larger than the whole label never fits
+        int high = Math.max(Math.min(style.getAutoSizeMaxTextSize(), 2 * (width + height)), low);
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            paint.setTextSize(middle);
+            paint.getTextBounds(text, 0, text.length(), bounds);
+            if (bounds.width() <= width && bounds.height() <= height) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+
+        return low;
+    }
+
+    private static final class Key {
+        private final String mText;
+        private final int mWidth;
+        private final int mHeight;
+        private final Typeface mTypeface;
+        private final int mMinTextSize;
+        private final int mMaxTextSize;
+
+        Key(String text, int width, int height, LabelStyle style) {
+            mText = text;
+            mWidth = width;
+            mHeight = height;
+            mTypeface = style.getTypeface();
+            mMinTextSize = style.getAutoSizeMinTextSize();
+            mMaxTextSize = style.getAutoSizeMaxTextSize();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            Key key = (Key) o;
+            return mWidth == key.mWidth
+                    && mHeight == key.mHeight
+                    && mMinTextSize == key.mMinTextSize
+                    && mMaxTextSize == key.mMaxTextSize
+                    && mText.equals(key.mText)
+                    && (mTypeface != null ? mTypeface.equals(key.mTypeface) : key.mTypeface == null);
+        }
+
+        @Override
+        public int hashCode() {
+            int hashCode = mText.hashCode();
+            hashCode = 31 * hashCode + mWidth;
+            hashCode = 31 * hashCode + mHeight;
+            hashCode = 31 * hashCode + (mTypeface != null ? mTypeface.hashCode() : 0);
+            hashCode = 31 * hashCode + mMinTextSize;
+            hashCode = 31 * hashCode + mMaxTextSize;
+            return hashCode;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.luxiliu.android.widget;
+
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+
+import androidx.collection.LruCache;
+
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+
+/**
+ * GlyphRunCache keeps advances and bounds of a set of glyphs, e.g. digits and currency symbols, for
+ * every text size and typeface, shared by all LabelLayouts. Text made of these glyphs only, like prices
+ * or counters, is measured by table lookup instead of shaping, and never fills {@link TextMeasureCache}
+ */
+public final class GlyphRunCache {
+    /**
+     * The glyphs measured by default: digits, separators, signs and common currency symbols
+     */
+    public static final String DEFAULT_GLYPHS = "0123456789.,:%+-$\u00a2\u00a3\u00a5\u20ac\u20b9\u20a9";
+
+    private static final int DEFAULT_MAX_SIZE = 16;
+
+    private static final LruCache<Key, GlyphTable> sCache = new LruCache<>(DEFAULT_MAX_SIZE);
+
+    private static volatile char[] sGlyphs = sortedGlyphs(DEFAULT_GLYPHS);
+
+    private GlyphRunCache() {
+    }
+
+    /**
+     * Set the glyphs measured by table lookup, text containing any other character is measured as usual.
+     * Glyphs must not kern with each other. The default value is {@link #DEFAULT_GLYPHS}
+     *
+     * @param glyphs The glyphs measured by table lookup, or null to disable table lookup
+     */
+    public static void setGlyphs(String glyphs) {
+        sGlyphs = glyphs != null ? sortedGlyphs(glyphs) : new char[0];
+        sCache.evictAll();
+    }
+
+    /**
+     * Get the glyphs measured by table lookup
+     *
+     * @return The glyphs measured by table lookup
+     */
+    public static String getGlyphs() {
+        return new String(sGlyphs);
+    }
+
+    /**
+     * Set the maximum number of cached text size and typeface combinations
+     *
+     * @param maxSize The maximum number of cached combinations
+     */
+    public static void setMaxSize(int maxSize) {
+        sCache.resize(maxSize);
+    }
+
+    /**
+     * Get the maximum number of cached text size and typeface combinations
+     *
+     * @return The maximum number of cached combinations
+     */
+    public static int getMaxSize() {
+        return sCache.maxSize();
+    }
+
+    /**
+     * Release all cached tables
+     */
+    public static void clear() {
+        sCache.evictAll();
+    }
+
+    /**
+     * Get text bounds by table lookup, only if text is made of cached glyphs
+     *
+     * @param text   The text to measure
+     * @param paint  The paint with text size and typeface set
+     * @param bounds The rect receiving text bounds
+     * @return True if text was measured, false if it contains any other character
+     */
+    static boolean getTextBounds(CharSequence text, Paint paint, Rect bounds) {
+        final char[] glyphs = sGlyphs;
+        final int length = text.length();
+        if (length == 0 || glyphs.length == 0) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (Arrays.binarySearch(glyphs, text.charAt(i)) < 0) {
+                return false;
+            }
+        }
+
+        final GlyphTable table = obtainTable(glyphs, paint);
+        float advance = 0;
+        int top = Integer.MAX_VALUE;
+        int bottom = Integer.MIN_VALUE;
+        for (int i = 0; i < length - 1; i++) {
+            final int index = Arrays.binarySearch(glyphs, text.charAt(i));
+            advance += table.advances[index];
+            top = Math.min(top, table.tops[index]);
+            bottom = Math.max(bottom, table.bottoms[index]);
+        }
+
+        final int first = Arrays.binarySearch(glyphs, text.charAt(0));
+        final int last = Arrays.binarySearch(glyphs, text.charAt(length - 1));
+        top = Math.min(top, table.tops[last]);
+        bottom = Math.max(bottom, table.bottoms[last]);
+        bounds.set(table.lefts[first], top, Math.round(advance) + table.rights[last], bottom);
+        return true;
+    }
+
+    /**
+     * Get text bounds by table lookup, only if text is made of cached glyphs
+     *
+     * @param text   The buffer containing text
+     * @param start  The start of text in buffer
+     * @param count  The length of text
+     * @param paint  The paint with text size and typeface set
+     * @param bounds The rect receiving text bounds
+     * @return True if text was measured, false if it contains any other character
+     */
+    static boolean getTextBounds(char[] text, int start, int count, Paint paint, Rect bounds) {
+        // Wrapped without copying, buffers are only measured when live text changes length
+        return getTextBounds(CharBuffer.wrap(text, start, count), paint, bounds);
+    }
+
+    // Get the table of text size and typeface of paint, measuring glyphs only if it's not cached yet
+    private static GlyphTable obtainTable(char[] glyphs, Paint paint) {
+        Key key = new Key(glyphs, paint.getTextSize(), paint.getTypeface());
+        GlyphTable table = sCache.get(key);
+        if (table == null) {
+            table = new GlyphTable(glyphs, paint);
+            sCache.put(key, table);
+            LabelLayoutMetrics.reportTextMeasure(false);
+        } else {
+            LabelLayoutMetrics.reportTextMeasure(true);
+        }
+
+        return table;
+    }
+
+    private static char[] sortedGlyphs(String glyphs) {
+        char[] sorted = glyphs.toCharArray();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    // Advances and bounds of every glyph, indexed like the sorted glyphs
+    private static final class GlyphTable {
+        final float[] advances;
+        final int[] lefts;
+        final int[] rights;
+        final int[] tops;
+        final int[] bottoms;
+
+        GlyphTable(char[] glyphs, Paint paint) {
+            final int count = glyphs.length;
+            advances = new float[count];
+            lefts = new int[count];
+            rights = new int[count];
+            tops = new int[count];
+            bottoms = new int[count];
+
+            paint.getTextWidths(glyphs, 0, count, advances);
+            final Rect bounds = new Rect();
+            for (int i = 0; i < count; i++) {
+                paint.getTextBounds(glyphs, i, 1, bounds);
+                lefts[i] = bounds.left;
+                rights[i] = bounds.right;
+                tops[i] = bounds.top;
+                bottoms[i] = bounds.bottom;
+            }
+        }
+    }
+
+    private static final class Key {
+        private final char[] mGlyphs;
+        private final float mTextSize;
+        private final Typeface mTypeface;
+
+        Key(char[] glyphs, float textSize, Typeface typeface) {
+            mGlyphs = glyphs;
+            mTextSize = textSize;
+            mTypeface = typeface;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            Key key = (Key) o;
+            return mTextSize == key.mTextSize
+                    && mGlyphs == key.mGlyphs
+                    && (mTypeface != null ? mTypeface.equals(key.mTypeface) : key.mTypeface == null);
+        }
+
+        @Override
+        public int hashCode() {
+            int hashCode = System.identityHashCode(mGlyphs);
+            hashCode = 31 * hashCode + Float.floatToIntBits(mTextSize);
+            hashCode = 31 * hashCode + (mTypeface != null ? mTypeface.hashCode() : 0);
+            return hashCode;
+        }
+    }
+}
@@ -0,0 +1,562 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.luxiliu.android.widget;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.text.Layout;
+import android.text.TextDirectionHeuristics;
+import android.text.TextUtils;
+
+import java.text.Bidi;
+import java.text.BreakIterator;
+
+
+/**
+ * Label keeps the drawing state of one LabelSpec: its display text, cached geometry, cached bitmap and
+ * running animation
+ */
+final class Label {
+    private LabelSpec mSpec;
+
+    // The text actually drawn, already in visual order for its direction
+    private String mDisplayText;
+
+    private final LabelGeometry mGeometry = new LabelGeometry();
+
+    // Shared pre-rendered label, looked up again after the spec changes
+    private Bitmap mCacheBitmap;
+
+    // Running animation, its start is taken from the first frame
+    private LabelAnimation mAnimation;
+    private long mAnimationStartNanos;
+    private boolean mAnimationTextChanged;
+
+    // Animated state drawn on top of spec: offset out of the corner as a fraction of label extent, alpha and text color
+    private float mAnimatedOffset;
+    private int mAnimatedAlpha = 255;
+    private boolean mTextColorAnimated;
+    private int mAnimatedTextColor;
+    private Paint mAnimatedPaint;
+    private Paint mAlphaPaint;
+
+    // Live text drawn instead of the text of spec, formatted into the buffer not drawn
+    private LiveLabelText mLiveText;
+    private char[] mLiveChars;
+    private char[] mLiveBuffer;
+    private int mLiveLength;
+
+    Label(LabelSpec spec) {
+        mSpec = spec;
+        updateDisplayText();
+    }
+
+    /**
+     * Replace the spec with the one of another label, copying everything already calculated. Running
+     * animation and live text are kept
+     *
+     * @param label The label to copy from
+     */
+    void set(Label label) {
+        mSpec = label.mSpec;
+        mDisplayText = label.mDisplayText;
+        mGeometry.set(label.mGeometry);
+        mCacheBitmap = label.mCacheBitmap;
+    }
+
+    LabelSpec getSpec() {
+        return mSpec;
+    }
+
+    /**
+     * Calculate the geometry now, with own copies of text paint and layout instead of the shared ones, so
+     * the label can be drawn on any thread while other labels draw the shared ones. It must be called
+     * again after the spec changes
+     */
+    void prepareOwnText() {
+        if (mGeometry.isDirty()) {
+            mGeometry.update(mSpec.getStyle(), mSpec.getText());
+        }
+
+        mGeometry.copyTextResources(mSpec.getStyle(), mSpec.getText());
+    }
+
+    /**
+     * Replace the spec of label, only recalculating what actually changed
+     *
+     * @param spec The new spec
+     * @return True if the spec changed
+     */
+    boolean setSpec(LabelSpec spec) {
+        if (mSpec.isIdentical(spec)) {
+            return false;
+        }
+
+        LabelStyle style = mSpec.getStyle();
+        boolean textChanged = !TextUtils.equals(mSpec.getText(), spec.getText());
+        boolean geometryChanged = textChanged || !style.hasSameGeometry(spec.getStyle());
+        boolean displayTextChanged = textChanged || style.getTextDirection() != spec.getStyle().getTextDirection();
+
+        mSpec = spec;
+        mCacheBitmap = null;
+        if (displayTextChanged) {
+            updateDisplayText();
+        }
+        if (geometryChanged) {
+            mGeometry.invalidate();
+        }
+
+        return true;
+    }
+
+    /**
+     * Start an animation, replacing the running one
+     *
+     * @param animation The animation to start
+     */
+    void startAnimation(LabelAnimation animation) {
+        cancelAnimation();
+        mAnimation = animation;
+        mAnimationStartNanos = -1;
+    }
+
+    /**
+     * Stop the running animation, leaving label as it's without animation
+     */
+    void cancelAnimation() {
+        mAnimation = null;
+        mAnimationTextChanged = false;
+        mAnimatedOffset = 0;
+        mAnimatedAlpha = 255;
+        mTextColorAnimated = false;
+    }
+
+    boolean isAnimating() {
+        return mAnimation != null;
+    }
+
+    /**
+     * Calculate animated state for a frame
+     *
+     * @param frameTimeNanos The time of frame
+     * @return True if animation is still running after this frame
+     */
+    boolean onFrame(long frameTimeNanos) {
+        final LabelAnimation animation = mAnimation;
+        if (animation == null) {
+            return false;
+        }
+        if (mAnimationStartNanos < 0) {
+            mAnimationStartNanos = frameTimeNanos;
+        }
+
+        final long elapsed = (frameTimeNanos - mAnimationStartNanos) / 1000000;
+        final float fraction = Math.min(elapsed / (float) animation.getDuration(), 1);
+        boolean running = fraction < 1;
+        switch (animation.getType()) {
+            case SLIDE_IN:
+                mAnimatedOffset = 1 - interpolate(fraction);
+                break;
+
+            case FADE_IN:
+                mAnimatedAlpha = Math.round(255 * interpolate(fraction));
+                break;
+
+            case FADE_TEXT:
+                mAnimatedAlpha = Math.round(255 * Math.abs(1 - interpolate(fraction) * 2));
+                changeAnimationText(fraction, animation.getText());
+                break;
+
+            case SLIDE_TEXT:
+                mAnimatedOffset = 1 - Math.abs(1 - interpolate(fraction) * 2);
+                changeAnimationText(fraction, animation.getText());
+                break;
+
+            case PULSE_TEXT_COLOR:
+                final long pulse = elapsed / animation.getDuration();
+                running = animation.getRepeatCount() == LabelAnimation.INFINITE || pulse < animation.getRepeatCount();
+                final float pulseFraction = (elapsed % animation.getDuration()) / (float) animation.getDuration();
+                mTextColorAnimated = running;
+                mAnimatedTextColor = blendColor(mSpec.getStyle().getTextColor(), animation.getColor(),
+                        (float) (1 - Math.cos(2 * Math.PI * pulseFraction)) / 2);
+                break;
+        }
+
+        if (!running) {
+            cancelAnimation();
+        }
+
+        return running;
+    }
+
+    // Replace text when the animation is half way
+    private void changeAnimationText(float fraction, String text) {
+        if (fraction >= 0.5f && !mAnimationTextChanged) {
+            mAnimationTextChanged = true;
+            setSpec(mSpec.withText(text));
+        }
+    }
+
+    // Accelerate then decelerate
+    private static float interpolate(float fraction) {
+        return (float) (Math.cos((fraction + 1) * Math.PI) / 2) + 0.5f;
+    }
+
+    private static int blendColor(int from, int to, float fraction) {
+        return Color.argb(
+                Math.round(Color.alpha(from) + (Color.alpha(to) - Color.alpha(from)) * fraction),
+                Math.round(Color.red(from) + (Color.red(to) - Color.red(from)) * fraction),
+                Math.round(Color.green(from) + (Color.green(to) - Color.green(from)) * fraction),
+                Math.round(Color.blue(from) + (Color.blue(to) - Color.blue(from)) * fraction));
+    }
+
+    /**
+     * Set live text drawn instead of the text of spec
+     *
+     * @param liveText The live text, or null to draw the text of spec again
+     */
+    void setLiveText(LiveLabelText liveText) {
+        mLiveText = liveText;
+        if (liveText != null) {
+            if (mLiveChars == null) {
+                mLiveChars = new char[LiveLabelText.MAX_LENGTH];
+                mLiveBuffer = new char[LiveLabelText.MAX_LENGTH];
+            }
+
+            mLiveLength = -1;
+            updateLiveText(System.currentTimeMillis());
+        }
+    }
+
+    boolean hasLiveText() {
+        return mLiveText != null;
+    }
+
+    /**
+     * Format live text for a tick
+     *
+     * @param currentTimeMillis The time of tick
+     * @return True if the text changed
+     */
+    boolean updateLiveText(long currentTimeMillis) {
+        final int length = Math.min(Math.max(mLiveText.format(currentTimeMillis, mLiveBuffer), 0), mLiveBuffer.length);
+        if (length == mLiveLength && equals(mLiveChars, mLiveBuffer, length)) {
+            return false;
+        }
+
+        // Swap buffers, the one drawn is never written
+        final char[] chars = mLiveBuffer;
+        mLiveBuffer = mLiveChars;
+        mLiveChars = chars;
+        mLiveLength = length;
+        return true;
+    }
+
+    private static boolean equals(char[] a, char[] b, int length) {
+        for (int i = 0; i < length; i++) {
+            if (a[i] != b[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Drop the reference to the shared pre-rendered label
+     */
+    void invalidateCache() {
+        mCacheBitmap = null;
+    }
+
+    /**
+     * Calculate geometry and optionally render the shared pre-rendered label ahead of the first draw,
+     * it may be called on any thread before the label is attached
+     *
+     * @param preRender True to render the shared pre-rendered label too
+     */
+    void prepare(boolean preRender) {
+        // The shared text paint and layout may be drawing on UI thread at the same time, so render with copies
+        prepareOwnText();
+
+        if (preRender && mCacheBitmap == null) {
+            // The background may be drawing on UI thread at the same time, so render with a copy
+            Drawable background = mSpec.getStyle().getBackground();
+            if (background != null && background.getConstantState() != null) {
+                background = background.getConstantState().newDrawable();
+            }
+
+            mCacheBitmap = obtainCacheBitmap(background);
+        }
+    }
+
+    /**
+     * Calculate the square at the corner of view which contains the label and the shadow of its ribbon
+     *
+     * @param viewWidth  The width of view
+     * @param viewHeight The height of view
+     * @param bounds     The rect receiving the bounds
+     */
+    void getBounds(int viewWidth, int viewHeight, Rect bounds) {
+        int size = LabelGeometry.calculateExtent(mSpec.getStyle());
+        int left = calculateCornerLeft(viewWidth, size);
+        int top = calculateCornerTop(viewHeight, size);
+        bounds.set(left, top, left + size, top + size);
+    }
+
+    /**
+     * Draw the label
+     *
+     * @param canvas       The canvas to draw on
+     * @param viewWidth    The width of view
+     * @param viewHeight   The height of view
+     * @param cacheEnabled True to draw from the shared pre-rendered label
+     */
+    void draw(Canvas canvas, int viewWidth, int viewHeight, boolean cacheEnabled) {
+        draw(canvas, viewWidth, viewHeight, cacheEnabled, mSpec.getStyle().getBackground());
+    }
+
+    /**
+     * Draw the label with another background, e.g. a copy owned by the drawing thread
+     *
+     * @param canvas       The canvas to draw on
+     * @param viewWidth    The width of view
+     * @param viewHeight   The height of view
+     * @param cacheEnabled True to draw from the shared pre-rendered label
+     * @param background   The background drawn instead of the one of style
+     */
+    void draw(Canvas canvas, int viewWidth, int viewHeight, boolean cacheEnabled, Drawable background) {
+        final LabelStyle style = mSpec.getStyle();
+        final int size = LabelGeometry.calculateExtent(style);
+        int left = calculateCornerLeft(viewWidth, size);
+        int top = calculateCornerTop(viewHeight, size);
+        if (mAnimatedOffset != 0) {
+            // Move out of the corner, along the diagonal
+            final LabelLayout.Gravity gravity = style.getGravity();
+            final int offset = Math.round(mAnimatedOffset * size);
+            left += gravity == LabelLayout.Gravity.TOP_RIGHT || gravity == LabelLayout.Gravity.BOTTOM_RIGHT ? offset : -offset;
+            top += gravity == LabelLayout.Gravity.BOTTOM_RIGHT || gravity == LabelLayout.Gravity.BOTTOM_LEFT ? offset : -offset;
+        }
+
+        // Skip the label when its corner is clipped out, e.g. scrolled off screen
+        if (size <= 0 || mAnimatedAlpha == 0 || canvas.quickReject(left, top, left + size, top + size, Canvas.EdgeType.AA)) {
+            return;
+        }
+
+        if (cacheEnabled && !mTextColorAnimated && mLiveText == null) {
+            drawCached(canvas, left, top, background);
+        } else {
+            if (mGeometry.isDirty()) {
+                mGeometry.update(style, mSpec.getText());
+            }
+            if (mLiveText != null) {
+                mGeometry.updateLiveTextOffsets(style, mLiveChars, mLiveLength);
+            }
+
+            final int saveCount = mAnimatedAlpha < 255
+                    ? saveLayerAlpha(canvas, left, top, left + size, top + size, mAnimatedAlpha) : -1;
+
+            // Geometry is relative to the square at the corner, translating back is cheaper than save and restore
+            canvas.translate(left, top);
+            drawLabel(canvas, background, mTextColorAnimated ? obtainAnimatedPaint() : mGeometry.textPaint);
+            canvas.translate(-left, -top);
+
+            if (saveCount >= 0) {
+                canvas.restoreToCount(saveCount);
+            }
+        }
+    }
+
+    // Get the paint drawing animated text color, a copy of the shared one
+    private Paint obtainAnimatedPaint() {
+        if (mAnimatedPaint == null) {
+            mAnimatedPaint = new Paint(mGeometry.textPaint);
+        } else if (mAnimatedPaint.getTextSize() != mGeometry.textPaint.getTextSize()
+                || mAnimatedPaint.getTypeface() != mGeometry.textPaint.getTypeface()) {
+            mAnimatedPaint.set(mGeometry.textPaint);
+        }
+
+        mAnimatedPaint.setColor(mAnimatedTextColor);
+        return mAnimatedPaint;
+    }
+
+    // Calculate the left of the square with given size at the label's corner
+    private int calculateCornerLeft(int viewWidth, int size) {
+        LabelLayout.Gravity gravity = mSpec.getStyle().getGravity();
+        return gravity == LabelLayout.Gravity.TOP_RIGHT || gravity == LabelLayout.Gravity.BOTTOM_RIGHT ? viewWidth - size : 0;
+    }
+
+    // Calculate the top of the square with given size at the label's corner
+    private int calculateCornerTop(int viewHeight, int size) {
+        LabelLayout.Gravity gravity = mSpec.getStyle().getGravity();
+        return gravity == LabelLayout.Gravity.BOTTOM_RIGHT || gravity == LabelLayout.Gravity.BOTTOM_LEFT ? viewHeight - size : 0;
+    }
+
+    // Save flags are deprecated since Lollipop, where a layer always saves everything
+    @SuppressWarnings("deprecation")
+    private static int saveLayerAlpha(Canvas canvas, float left, float top, float right, float bottom, int alpha) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            return canvas.saveLayerAlpha(left, top, right, bottom, alpha);
+        } else {
+            return canvas.saveLayerAlpha(left, top, right, bottom, alpha, Canvas.ALL_SAVE_FLAG);
+        }
+    }
+
+    // Calculate the text to draw, only when text or direction changes
+    private void updateDisplayText() {
+        String text = mSpec.getText();
+        // Text drawn along a path has no paragraph direction, so LOCALE draws like LEFT_TO_RIGHT
+        if (text == null || text.isEmpty() || mSpec.getStyle().getTextDirection() != LabelLayout.TextDirection.RIGHT_TO_LEFT
+                || isRtlScript(text)) {
+            // Text of right to left scripts is already laid out from right to left when drawn
+            mDisplayText = text;
+        } else {
+            mDisplayText = reverseCharacters(text);
+        }
+    }
+
+    // Check whether the first strong directional character of text belongs to a right to left script
+    private static boolean isRtlScript(String text) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            return TextDirectionHeuristics.FIRSTSTRONG_LTR.isRtl(text, 0, text.length());
+        } else {
+            return !new Bidi(text, Bidi.DIRECTION_DEFAULT_LEFT_TO_RIGHT).baseIsLeftToRight();
+        }
+    }
+
+    // Reverse the order of user-perceived characters, keeping surrogate pairs, combining marks and emoji sequences intact
+    private static String reverseCharacters(String text) {
+        BreakIterator iterator = BreakIterator.getCharacterInstance();
+        iterator.setText(text);
+
+        StringBuilder builder = new StringBuilder(text.length());
+        int end = iterator.last();
+        for (int start = iterator.previous(); start != BreakIterator.DONE; end = start, start = iterator.previous()) {
+            builder.append(text, start, end);
+        }
+
+        return builder.toString();
+    }
+
+    private void drawLabel(Canvas canvas, Drawable background, Paint textPaint) {
+        final LabelGeometry geometry = mGeometry;
+
+        // Draw background and text layout with the canvas rotated once, live text is always drawn along bisector
+        Layout textLayout = mLiveText == null ? geometry.textLayout : null;
+        final RibbonShape ribbon = geometry.ribbon;
+        if (ribbon != null) {
+            ribbon.drawFolds(canvas);
+        }
+        if (background != null || textLayout != null || ribbon != null) {
+            canvas.save();
+            canvas.rotate(geometry.rotateDegree, geometry.centerX, geometry.centerY);
+
+            if (ribbon != null) {
+                ribbon.draw(canvas, geometry.labelRect);
+            }
+            if (background != null) {
+                drawBackground(canvas, background, geometry);
+            }
+
+            if (textLayout != null) {
+                canvas.translate(geometry.centerX - textLayout.getWidth() / 2f, geometry.centerY - textLayout.getHeight() / 2f);
+                textLayout.draw(canvas);
+            }
+
+            canvas.restore();
+        }
+
+        // Draw text along bisector
+        if (mLiveText != null) {
+            canvas.drawTextOnPath(mLiveChars, 0, mLiveLength, geometry.bisectorPath, geometry.liveTextHOffset, geometry.liveTextVOffset, textPaint);
+        } else if (textLayout == null && mDisplayText != null) {
+            canvas.drawTextOnPath(mDisplayText, geometry.bisectorPath, geometry.textHOffset, geometry.textVOffset, textPaint);
+        }
+    }
+
+    private static void drawBackground(Canvas canvas, Drawable background, LabelGeometry geometry) {
+        final Rect labelRect = geometry.labelRect;
+        final Rect bounds = geometry.backgroundBounds;
+
+        int saveCount = 0;
+        if (geometry.backgroundClipped) {
+            saveCount = canvas.save();
+            canvas.clipRect(labelRect);
+        }
+
+        if (geometry.backgroundTiled) {
+            final int width = bounds.width();
+            final int height = bounds.height();
+            for (int top = bounds.top; top < labelRect.bottom; top += height) {
+                for (int left = bounds.left; left < labelRect.right; left += width) {
+                    background.setBounds(left, top, left + width, top + height);
+                    background.draw(canvas);
+                }
+            }
+        } else {
+            background.setBounds(bounds);
+            background.draw(canvas);
+        }
+
+        if (geometry.backgroundClipped) {
+            canvas.restoreToCount(saveCount);
+        }
+    }
+
+    // Blit the shared pre-rendered label at the square at the corner of view
+    private void drawCached(Canvas canvas, int left, int top, Drawable background) {
+        if (mCacheBitmap == null) {
+            mCacheBitmap = obtainCacheBitmap(background);
+            if (mCacheBitmap == null) {
+                return;
+            }
+        }
+
+        if (mAnimatedAlpha < 255) {
+            if (mAlphaPaint == null) {
+                mAlphaPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+            }
+            mAlphaPaint.setAlpha(mAnimatedAlpha);
+            canvas.drawBitmap(mCacheBitmap, left, top, mAlphaPaint);
+        } else {
+            canvas.drawBitmap(mCacheBitmap, left, top, null);
+        }
+    }
+
+    // Get the pre-rendered label from cache, render it if there is none yet
+    private Bitmap obtainCacheBitmap(Drawable background) {
+        Bitmap bitmap = LabelBitmapCache.get(mSpec);
+        if (bitmap == null) {
+            if (mGeometry.isDirty()) {
+                mGeometry.update(mSpec.getStyle(), mSpec.getText());
+            }
+            if (mGeometry.size <= 0) {
+                return null;
+            }
+
+            bitmap = Bitmap.createBitmap(mGeometry.size, mGeometry.size, Bitmap.Config.ARGB_8888);
+            drawLabel(new Canvas(bitmap), background, mGeometry.textPaint);
+            LabelBitmapCache.put(mSpec, bitmap);
+        }
+
+        return bitmap;
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.luxiliu.android.widget;
+
+
+/**
+ * LabelAnimation is an immutable description of a label animation. Animations of all labels are driven
+ * by a single shared frame callback, and only invalidate the corner containing the label
+ *
+ * @see LabelLayout#startLabelAnimation(LabelAnimation)
+ */
+public final class LabelAnimation {
+    /**
+     * Repeat count of an animation repeating until it's cancelled
+     */
+    public static final int INFINITE = -1;
+
+    /**
+     * Kinds of label animation
+     */
+    public enum Type {
+        /**
+         * Label slides in from outside the corner
+         */
+        SLIDE_IN,
+
+        /**
+         * Label fades in
+         */
+        FADE_IN,
+
+        /**
+         * Label fades out, changes text and fades in
+         */
+        FADE_TEXT,
+
+        /**
+         * Label slides out of the corner, changes text and slides in
+         */
+        SLIDE_TEXT,
+
+        /**
+         * Text color goes to another color and back, for every repeat
+         */
+        PULSE_TEXT_COLOR
+    }
+
+    private final Type mType;
+    private final long mDuration;
+    private final String mText;
+    private final int mColor;
+    private final int mRepeatCount;
+
+    private LabelAnimation(Type type, long duration, String text, int color, int repeatCount) {
+        mType = type;
+        mDuration = Math.max(duration, 1);
+        mText = text;
+        mColor = color;
+        mRepeatCount = repeatCount;
+    }
+
+    /**
+     * Create an animation sliding label in from outside the corner
+     *
+     * @param duration The duration in milliseconds
+     * @return The animation
+     */
+    public static LabelAnimation slideIn(long duration) {
+        return new LabelAnimation(Type.SLIDE_IN, duration, null, 0, 0);
+    }
+
+    /**
+     * Create an animation fading label in
+     *
+     * @param duration The duration in milliseconds
+     * @return The animation
+     */
+    public static LabelAnimation fadeIn(long duration) {
+        return new LabelAnimation(Type.FADE_IN, duration, null, 0, 0);
+    }
+
+    /**
+     * Create an animation fading label out, changing its text half way and fading it in
+     *
+     * @param text     The new text of label
+     * @param duration The duration in milliseconds
+     * @return The animation
+     */
+    public static LabelAnimation fadeText(String text, long duration) {
+        return new LabelAnimation(Type.FADE_TEXT, duration, text, 0, 0);
+    }
+
+    /**
+     * Create an animation sliding label out of the corner, changing its text half way and sliding it in
+     *
+     * @param text     The new text of label
+     * @param duration The duration in milliseconds
+     * @return The animation
+     */
+    public static LabelAnimation slideText(String text, long duration) {
+        return new LabelAnimation(Type.SLIDE_TEXT, duration, text, 0, 0);
+    }
+
+    /**
+     * Create an animation pulsing text color to another color and back. Only text drawn with
+     * {@link LabelLayout.RenderMode#PATH} pulses
+     *
+     * @param color       The color at the top of each pulse
+     * @param period      The duration of each pulse in milliseconds
+     * @param repeatCount The number of pulses, or {@link #INFINITE}
+     * @return The animation
+     */
+    public static LabelAnimation pulseTextColor(int color, long period, int repeatCount) {
+        return new LabelAnimation(Type.PULSE_TEXT_COLOR, period, null, color, repeatCount);
+    }
+
+    /**
+     * Get the kind of animation
+     *
+     * @return The kind of animation
+     */
+    public Type getType() {
+        return mType;
+    }
+
+    /**
+     * Get the duration of animation, or of each pulse
+     *
+     * @return The duration in milliseconds
+     */
+    public long getDuration() {
+        return mDuration;
+    }
+
+    /**
+     * Get the new text of label, for {@link Type#FADE_TEXT} and {@link Type#SLIDE_TEXT}
+     *
+     * @return The new text of label
+     */
+    public String getText() {
+        return mText;
+    }
+
+    /**
+     * Get the color at the top of each pulse, for {@link Type#PULSE_TEXT_COLOR}
+     *
+     * @return The color at the top of each pulse
+     */
+    public int getColor() {
+        return mColor;
+    }
+
+    /**
+     * Get the number of pulses, for {@link Type#PULSE_TEXT_COLOR}
+     *
+     * @return The number of pulses, or {@link #INFINITE}
+     */
+    public int getRepeatCount() {
+        return mRepeatCount;
+    }
+}
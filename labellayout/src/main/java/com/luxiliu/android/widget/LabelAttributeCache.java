@@ -0,0 +1,257 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.luxiliu.android.widget;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.graphics.Color;
+import android.graphics.drawable.Drawable;
+import android.util.AttributeSet;
+import android.util.LruCache;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+
+/**
+ * LabelAttributeCache keeps resolved LabelLayout attributes per theme, so inflating the same layout
+ * again skips attribute resolution and shares the resolved style. Every view gets its own background
+ * drawable created from the shared constant state, so changing the state of one doesn't affect others
+ */
+public final class LabelAttributeCache {
+    private static final int MAX_SIZE_PER_THEME = 16;
+
+    private static final Map<Resources.Theme, LruCache<Key, Attributes>> sCaches = new WeakHashMap<>();
+    private static volatile boolean sEnabled = true;
+
+    private LabelAttributeCache() {
+    }
+
+    /**
+     * Set whether resolved attributes are cached, enabled by default
+     *
+     * @param enabled True to cache resolved attributes
+     */
+    public static void setEnabled(boolean enabled) {
+        sEnabled = enabled;
+        if (!enabled) {
+            clear();
+        }
+    }
+
+    /**
+     * Check whether resolved attributes are cached
+     *
+     * @return True if resolved attributes are cached
+     */
+    public static boolean isEnabled() {
+        return sEnabled;
+    }
+
+    /**
+     * Release all cached attributes
+     */
+    public static void clear() {
+        synchronized (sCaches) {
+            sCaches.clear();
+        }
+    }
+
+    /**
+     * Get the resolved LabelLayout attributes, resolving them only if they are not cached yet
+     *
+     * @param context      The context of view
+     * @param attrs        The attributes of view, may be null
+     * @param defStyleAttr The default style attribute
+     * @return The resolved attributes
+     */
+    static Attributes obtain(Context context, AttributeSet attrs, int defStyleAttr) {
+        if (!sEnabled) {
+            return resolve(context, attrs, defStyleAttr);
+        }
+
+        Resources.Theme theme = context.getTheme();
+        LruCache<Key, Attributes> cache;
+        synchronized (sCaches) {
+            cache = sCaches.get(theme);
+            if (cache == null) {
+                cache = new LruCache<>(MAX_SIZE_PER_THEME);
+                sCaches.put(theme, cache);
+            }
+        }
+
+        Key key = new Key(attrs, defStyleAttr);
+        Attributes attributes = cache.get(key);
+        if (attributes == null) {
+            attributes = resolve(context, attrs, defStyleAttr);
+            cache.put(key, attributes);
+        }
+
+        return attributes.withOwnBackground(context.getResources());
+    }
+
+    private static Attributes resolve(Context context, AttributeSet attrs, int defStyleAttr) {
+        TypedArray typedArray = context.getTheme().obtainStyledAttributes(attrs, R.styleable.LabelLayout, defStyleAttr, 0);
+        LabelStyle style = new LabelStyle.Builder()
+                .setDistance(typedArray.getDimensionPixelSize(R.styleable.LabelLayout_labelDistance, 0))
+                .setHeight(typedArray.getDimensionPixelSize(R.styleable.LabelLayout_labelHeight, 0))
+                .setBackground(typedArray.getDrawable(R.styleable.LabelLayout_labelBackground))
+                .setRibbon(resolveRibbon(typedArray))
+                .setBackgroundScaleType(LabelLayout.BackgroundScaleType.values()[typedArray.getInt(R.styleable.LabelLayout_labelBackgroundScaleType, LabelLayout.BackgroundScaleType.CENTER_INSIDE.ordinal())])
+                .setGravity(LabelLayout.Gravity.values()[typedArray.getInt(R.styleable.LabelLayout_labelGravity, LabelLayout.Gravity.TOP_LEFT.ordinal())])
+                .setTextSize(typedArray.getDimensionPixelSize(R.styleable.LabelLayout_labelTextSize, LabelStyle.getDefaultTextSize()))
+                .setTextColor(typedArray.getColor(R.styleable.LabelLayout_labelTextColor, Color.BLACK))
+                .setTextDirection(LabelLayout.TextDirection.values()[typedArray.getInt(R.styleable.LabelLayout_labelTextDirection, LabelLayout.TextDirection.LEFT_TO_RIGHT.ordinal())])
+                .setRenderMode(LabelLayout.RenderMode.values()[typedArray.getInt(R.styleable.LabelLayout_labelRenderMode, LabelLayout.RenderMode.PATH.ordinal())])
+                .setMaxLines(typedArray.getInt(R.styleable.LabelLayout_labelMaxLines, 1))
+                .setAutoSize(typedArray.getBoolean(R.styleable.LabelLayout_labelAutoSize, false))
+                .setAutoSizeTextSizeRange(
+                        typedArray.getDimensionPixelSize(R.styleable.LabelLayout_labelAutoSizeMinTextSize, 1),
+                        typedArray.getDimensionPixelSize(R.styleable.LabelLayout_labelAutoSizeMaxTextSize, Integer.MAX_VALUE))
+                .build();
+        Attributes attributes = new Attributes(
+                typedArray.getString(R.styleable.LabelLayout_labelText),
+                style,
+                LabelLayout.DrawOrder.values()[typedArray.getInt(R.styleable.LabelLayout_labelDrawOrder, LabelLayout.DrawOrder.OVER_CHILDREN.ordinal())],
+                typedArray.getBoolean(R.styleable.LabelLayout_labelCacheEnabled, false),
+                typedArray.getBoolean(R.styleable.LabelLayout_labelLayerEnabled, false));
+        typedArray.recycle();
+
+        return attributes;
+    }
+
+    // A ribbon is only drawn when its color is set
+    private static LabelRibbon resolveRibbon(TypedArray typedArray) {
+        if (!typedArray.hasValue(R.styleable.LabelLayout_labelRibbonStartColor)) {
+            return null;
+        }
+
+        LabelRibbon.Builder builder = new LabelRibbon.Builder();
+        int startColor = typedArray.getColor(R.styleable.LabelLayout_labelRibbonStartColor, 0);
+        builder.setColors(startColor, typedArray.getColor(R.styleable.LabelLayout_labelRibbonEndColor, startColor));
+        builder.setShadow(
+                typedArray.getColor(R.styleable.LabelLayout_labelRibbonShadowColor, 0x40000000),
+                typedArray.getDimensionPixelSize(R.styleable.LabelLayout_labelRibbonShadowRadius, 0));
+        builder.setFold(
+                typedArray.getColor(R.styleable.LabelLayout_labelRibbonFoldColor, 0x80000000),
+                typedArray.getDimensionPixelSize(R.styleable.LabelLayout_labelRibbonFoldSize, 0));
+        return builder.build();
+    }
+
+    /**
+     * Resolved LabelLayout attributes
+     */
+    static final class Attributes {
+        final String text;
+        final LabelStyle style;
+        final LabelLayout.DrawOrder drawOrder;
+        final boolean cacheEnabled;
+        final boolean layerEnabled;
+
+        Attributes(String text, LabelStyle style, LabelLayout.DrawOrder drawOrder, boolean cacheEnabled, boolean layerEnabled) {
+            this.text = text;
+            this.style = style;
+            this.drawOrder = drawOrder;
+            this.cacheEnabled = cacheEnabled;
+            this.layerEnabled = layerEnabled;
+        }
+
+        /**
+         * Get the attributes with a new background drawable sharing the constant state of cached one
+         *
+         * @param resources The resources of view
+         * @return The attributes owning their background, or these attributes if background can't be copied
+         */
+        Attributes withOwnBackground(Resources resources) {
+            final Drawable background = style.getBackground();
+            if (background == null || background.getConstantState() == null) {
+                return this;
+            }
+
+            LabelStyle ownStyle = new LabelStyle.Builder(style)
+                    .setBackground(background.getConstantState().newDrawable(resources))
+                    .build();
+            return new Attributes(text, ownStyle, drawOrder, cacheEnabled, layerEnabled);
+        }
+    }
+
+    /**
+     * Identity of attributes within a theme: the default style, the style resource and the raw
+     * values of LabelLayout attributes set in XML
+     */
+    private static final class Key {
+        private final int mDefStyleAttr;
+        private final int mStyleRes;
+        private final String[] mValues;
+        private final int mHashCode;
+
+        Key(AttributeSet attrs, int defStyleAttr) {
+            mDefStyleAttr = defStyleAttr;
+            mValues = new String[R.styleable.LabelLayout.length];
+
+            if (attrs != null) {
+                mStyleRes = attrs.getStyleAttribute();
+                for (int i = 0; i < attrs.getAttributeCount(); i++) {
+                    int index = indexOf(R.styleable.LabelLayout, attrs.getAttributeNameResource(i));
+                    if (index >= 0) {
+                        mValues[index] = attrs.getAttributeValue(i);
+                    }
+                }
+            } else {
+                mStyleRes = 0;
+            }
+
+            int hashCode = mDefStyleAttr;
+            hashCode = 31 * hashCode + mStyleRes;
+            hashCode = 31 * hashCode + Arrays.hashCode(mValues);
+            mHashCode = hashCode;
+        }
+
+        private static int indexOf(int[] array, int value) {
+            if (value != 0) {
+                for (int i = 0; i < array.length; i++) {
+                    if (array[i] == value) {
+                        return i;
+                    }
+                }
+            }
+
+            return -1;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            Key key = (Key) o;
+            return mDefStyleAttr == key.mDefStyleAttr
+                    && mStyleRes == key.mStyleRes
+                    && Arrays.equals(mValues, key.mValues);
+        }
+
+        @Override
+        public int hashCode() {
+            return mHashCode;
+        }
+    }
+}
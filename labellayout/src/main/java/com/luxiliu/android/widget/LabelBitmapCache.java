@@ -0,0 +1,98 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.luxiliu.android.widget;
+
+import android.content.ComponentCallbacks2;
+import android.graphics.Bitmap;
+
+import androidx.collection.LruCache;
+
+
+/**
+ * LabelBitmapCache keeps pre-rendered labels, shared by all LabelLayouts drawing an identical label.
+ * Bitmaps are evicted in least recently used order once the cache exceeds its size in bytes
+ */
+public final class LabelBitmapCache {
+    private static final int DEFAULT_MAX_SIZE_BYTES = 4 * 1024 * 1024;
+
+    private static final LruCache<LabelSpec, Bitmap> sCache = new LruCache<LabelSpec, Bitmap>(DEFAULT_MAX_SIZE_BYTES) {
+        @Override
+        protected int sizeOf(LabelSpec key, Bitmap value) {
+            return value.getByteCount();
+        }
+    };
+
+    private LabelBitmapCache() {
+    }
+
+    /**
+     * Set the maximum size of cache
+     *
+     * @param maxSizeBytes The maximum size of cache in bytes
+     */
+    public static void setMaxSize(int maxSizeBytes) {
+        sCache.resize(maxSizeBytes);
+    }
+
+    /**
+     * Get the maximum size of cache
+     *
+     * @return The maximum size of cache in bytes
+     */
+    public static int getMaxSize() {
+        return sCache.maxSize();
+    }
+
+    /**
+     * Get the current size of cache
+     *
+     * @return The current size of cache in bytes
+     */
+    public static int getSize() {
+        return sCache.size();
+    }
+
+    /**
+     * Release cached labels according to memory level, to be called from
+     * {@link ComponentCallbacks2#onTrimMemory(int)}
+     *
+     * @param level The memory trim level
+     */
+    public static void trimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE) {
+            sCache.evictAll();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            sCache.trimToSize(sCache.maxSize() / 2);
+        }
+    }
+
+    /**
+     * Release all cached labels
+     */
+    public static void clear() {
+        sCache.evictAll();
+    }
+
+    // View size is not part of the key, as the label is rendered relative to its corner
+    static Bitmap get(LabelSpec spec) {
+        return sCache.get(spec);
+    }
+
+    static void put(LabelSpec spec, Bitmap bitmap) {
+        sCache.put(spec, bitmap);
+    }
+}
@@ -0,0 +1,484 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.luxiliu.android.widget;
+
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+
+import java.util.ArrayList;
+
+
+/**
+ * LabelDrawable draws labels at the corners of its bounds, it can be used as the foreground or overlay
+ * of any view without wrapping it in a LabelLayout
+ */
+public class LabelDrawable extends Drawable {
+    // Labels drawn in one pass
+    private final ArrayList<Label> mLabels = new ArrayList<>(1);
+
+    private boolean mCacheEnabled;
+
+    // Labels recorded once and replayed on API 29+, only when layer is enabled
+    private boolean mLayerEnabled;
+    private LabelRenderNode mRenderNode;
+
+    // Alpha and color filter, applied through a layer only when set
+    private final Paint mLayerPaint = new Paint();
+    private ColorFilter mColorFilter;
+
+    // Union of corner squares changed since last draw, reported to view by 'getDirtyBounds()'
+    private final Rect mDirtyRect = new Rect();
+
+    // Reusable buffer for invalidation
+    private final Rect mLabelRect = new Rect();
+
+    // Registered to the shared frame clock while any label animates and drawable is visible
+    private final LabelFrameClock.Callback mFrameCallback = new LabelFrameClock.Callback() {
+        @Override
+        public boolean onFrame(long frameTimeNanos) {
+            return doAnimationFrame(frameTimeNanos);
+        }
+    };
+
+    // Registered to the shared ticker while any label has live text and drawable is visible
+    private final LabelTicker.Callback mTickCallback = new LabelTicker.Callback() {
+        @Override
+        public boolean onTick(long currentTimeMillis) {
+            return doTick(currentTimeMillis);
+        }
+    };
+
+    /**
+     * Create a drawable without labels
+     */
+    public LabelDrawable() {
+    }
+
+    /**
+     * Create a drawable with a label
+     *
+     * @param spec The label
+     */
+    public LabelDrawable(LabelSpec spec) {
+        mLabels.add(new Label(spec));
+    }
+
+    /**
+     * Get the number of labels
+     *
+     * @return The number of labels
+     */
+    public int getLabelCount() {
+        return mLabels.size();
+    }
+
+    /**
+     * Get a label
+     *
+     * @param index The index of label
+     * @return The label
+     */
+    public LabelSpec getLabel(int index) {
+        return mLabels.get(index).getSpec();
+    }
+
+    /**
+     * Replace a label
+     *
+     * @param index The index of label
+     * @param spec  The new label
+     */
+    public void setLabel(int index, LabelSpec spec) {
+        Label label = mLabels.get(index);
+        if (label.getSpec().isIdentical(spec)) {
+            return;
+        }
+
+        addDirtyLabel(label);
+        label.setSpec(spec);
+        addDirtyLabel(label);
+        invalidateRecording();
+        invalidateSelf();
+    }
+
+    /**
+     * Apply the change of a label, leaving other labels untouched
+     *
+     * @param payload The change of label
+     */
+    public void applyPayload(LabelPayload payload) {
+        setLabel(payload.getIndex(), payload.apply(getLabel(payload.getIndex())));
+    }
+
+    /**
+     * Replace a label with one prepared ahead, reusing everything already calculated. Like
+     * {@link #setLabel(int, LabelSpec)}, running animation and live text of the label are kept
+     *
+     * @param index    The index of label
+     * @param prepared The prepared label
+     * @see LabelSpec#prepareAsync(java.util.concurrent.Executor, boolean, PreparedLabel.Callback)
+     */
+    public void setLabel(int index, PreparedLabel prepared) {
+        Label label = mLabels.get(index);
+        if (label.getSpec().isIdentical(prepared.getSpec())) {
+            return;
+        }
+
+        addDirtyLabel(label);
+        prepared.applyTo(label);
+        addDirtyLabel(label);
+        invalidateRecording();
+        invalidateSelf();
+    }
+
+    /**
+     * Add a label, drawn in the same pass as other labels
+     *
+     * @param spec The label to add
+     */
+    public void addLabel(LabelSpec spec) {
+        Label label = new Label(spec);
+        mLabels.add(label);
+        addDirtyLabel(label);
+        invalidateRecording();
+        invalidateSelf();
+    }
+
+    /**
+     * Remove a label
+     *
+     * @param index The index of label
+     */
+    public void removeLabel(int index) {
+        addDirtyLabel(mLabels.remove(index));
+        invalidateRecording();
+        invalidateSelf();
+    }
+
+    /**
+     * Check whether labels are drawn from pre-rendered bitmaps shared by identical labels
+     *
+     * @return True if label cache is enabled
+     * @see LabelBitmapCache
+     */
+    public boolean isCacheEnabled() {
+        return mCacheEnabled;
+    }
+
+    /**
+     * Set whether labels are drawn from pre-rendered bitmaps shared by identical labels
+     *
+     * @param cacheEnabled True to enable label cache
+     * @see LabelBitmapCache
+     */
+    public void setCacheEnabled(boolean cacheEnabled) {
+        if (mCacheEnabled == cacheEnabled) {
+            return;
+        }
+
+        mCacheEnabled = cacheEnabled;
+        for (int i = 0; i < mLabels.size(); i++) {
+            mLabels.get(i).invalidateCache();
+        }
+        invalidateRecording();
+        invalidateLabels();
+    }
+
+    /**
+     * Check whether labels are drawn once into a layer, which is replayed until labels change
+     *
+     * @return True if layer is enabled
+     */
+    public boolean isLayerEnabled() {
+        return mLayerEnabled;
+    }
+
+    /**
+     * Set whether labels are drawn once into a layer, which is replayed until labels change, e.g. while
+     * a view is animated. Labels are recorded into a RenderNode on API 29+ hardware accelerated canvases,
+     * otherwise they are drawn from pre-rendered bitmaps
+     *
+     * @param layerEnabled True to enable layer
+     */
+    public void setLayerEnabled(boolean layerEnabled) {
+        if (mLayerEnabled == layerEnabled) {
+            return;
+        }
+
+        mLayerEnabled = layerEnabled;
+        if (layerEnabled && Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            mRenderNode = new LabelRenderNode();
+        } else if (mRenderNode != null) {
+            mRenderNode.discard();
+            mRenderNode = null;
+        }
+        invalidateLabels();
+    }
+
+    /**
+     * Start an animation of a label, replacing its running animation. It must be called on main thread.
+     * Frames only run while drawable is visible, an animation started while hidden waits until it's shown
+     *
+     * @param index     The index of label
+     * @param animation The animation to start
+     */
+    public void startAnimation(int index, LabelAnimation animation) {
+        mLabels.get(index).startAnimation(animation);
+        if (isVisible()) {
+            LabelFrameClock.getInstance().add(mFrameCallback);
+        }
+    }
+
+    /**
+     * Stop the running animation of a label, leaving it as it's without animation
+     *
+     * @param index The index of label
+     */
+    public void cancelAnimation(int index) {
+        Label label = mLabels.get(index);
+        if (!label.isAnimating()) {
+            return;
+        }
+
+        label.cancelAnimation();
+        addDirtyLabel(label);
+        invalidateRecording();
+        invalidateSelf();
+    }
+
+    /**
+     * Set live text of a label, drawn instead of its text and updated every second while drawable is
+     * visible. It must be called on main thread
+     *
+     * @param index    The index of label
+     * @param liveText The live text, or null to draw the text of label again
+     */
+    public void setLiveText(int index, LiveLabelText liveText) {
+        Label label = mLabels.get(index);
+        label.setLiveText(liveText);
+        addDirtyLabel(label);
+        invalidateRecording();
+        invalidateSelf();
+
+        if (liveText != null && isVisible()) {
+            LabelTicker.getInstance().add(mTickCallback);
+        }
+    }
+
+    @Override
+    public boolean setVisible(boolean visible, boolean restart) {
+        final boolean changed = super.setVisible(visible, restart);
+
+        // Animations are paused while drawable is hidden
+        if (!visible) {
+            LabelFrameClock.getInstance().remove(mFrameCallback);
+            LabelTicker.getInstance().remove(mTickCallback);
+        } else {
+            if (isAnimating()) {
+                LabelFrameClock.getInstance().add(mFrameCallback);
+            }
+            if (hasLiveText()) {
+                // Catch up with time passed while hidden
+                doTick(System.currentTimeMillis());
+                LabelTicker.getInstance().add(mTickCallback);
+            }
+        }
+
+        return changed;
+    }
+
+    @Override
+    public void draw(Canvas canvas) {
+        final long drawStart = LabelLayoutMetrics.isEnabled() ? System.nanoTime() : 0;
+
+        mDirtyRect.setEmpty();
+
+        final Rect bounds = getBounds();
+        final int saveCount = mLayerPaint.getAlpha() < 255 || mColorFilter != null
+                ? saveLayer(canvas, bounds, mLayerPaint)
+                : canvas.save();
+        canvas.translate(bounds.left, bounds.top);
+
+        final int width = bounds.width();
+        final int height = bounds.height();
+        if (mRenderNode != null && canvas.isHardwareAccelerated()) {
+            if (mRenderNode.needsRecording()) {
+                drawLabels(mRenderNode.beginRecording(width, height), width, height, mCacheEnabled);
+                mRenderNode.endRecording();
+            }
+            mRenderNode.draw(canvas);
+        } else {
+            // Without RenderNode, pre-rendered bitmaps are the layer
+            drawLabels(canvas, width, height, mCacheEnabled || mLayerEnabled);
+        }
+
+        canvas.restoreToCount(saveCount);
+
+        if (drawStart != 0) {
+            LabelLayoutMetrics.reportDraw(System.nanoTime() - drawStart);
+        }
+    }
+
+    // Save flags are deprecated since Lollipop, where a layer always saves everything
+    @SuppressWarnings("deprecation")
+    private static int saveLayer(Canvas canvas, Rect bounds, Paint paint) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            return canvas.saveLayer(bounds.left, bounds.top, bounds.right, bounds.bottom, paint);
+        } else {
+            return canvas.saveLayer(bounds.left, bounds.top, bounds.right, bounds.bottom, paint, Canvas.ALL_SAVE_FLAG);
+        }
+    }
+
+    @Override
+    public Rect getDirtyBounds() {
+        // Before Android L views invalidate the whole bounds instead
+        return mDirtyRect.isEmpty() ? getBounds() : mDirtyRect;
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        if (mLayerPaint.getAlpha() == alpha) {
+            return;
+        }
+
+        mLayerPaint.setAlpha(alpha);
+        invalidateLabels();
+    }
+
+    @Override
+    public int getAlpha() {
+        return mLayerPaint.getAlpha();
+    }
+
+    @Override
+    public void setColorFilter(ColorFilter colorFilter) {
+        if (mColorFilter == colorFilter) {
+            return;
+        }
+
+        mColorFilter = colorFilter;
+        mLayerPaint.setColorFilter(colorFilter);
+        invalidateLabels();
+    }
+
+    @Override
+    public int getOpacity() {
+        return PixelFormat.TRANSLUCENT;
+    }
+
+    @Override
+    protected void onBoundsChange(Rect bounds) {
+        super.onBoundsChange(bounds);
+
+        // Label geometry doesn't depend on bounds, but the whole drawable moves
+        mDirtyRect.setEmpty();
+        invalidateRecording();
+    }
+
+    /**
+     * Invalidate only the squares at the corners which contain labels
+     */
+    void invalidateLabels() {
+        for (int i = 0; i < mLabels.size(); i++) {
+            addDirtyLabel(mLabels.get(i));
+        }
+        invalidateSelf();
+    }
+
+    private boolean isAnimating() {
+        for (int i = 0; i < mLabels.size(); i++) {
+            if (mLabels.get(i).isAnimating()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean hasLiveText() {
+        for (int i = 0; i < mLabels.size(); i++) {
+            if (mLabels.get(i).hasLiveText()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    // Update all live text, invalidating only the corners of labels whose text changed
+    private boolean doTick(long currentTimeMillis) {
+        boolean live = false;
+        boolean changed = false;
+        for (int i = 0; i < mLabels.size(); i++) {
+            Label label = mLabels.get(i);
+            if (label.hasLiveText()) {
+                live = true;
+                if (label.updateLiveText(currentTimeMillis)) {
+                    addDirtyLabel(label);
+                    changed = true;
+                }
+            }
+        }
+
+        if (changed) {
+            invalidateRecording();
+            invalidateSelf();
+        }
+        return live;
+    }
+
+    // Advance all animations, invalidating only the corners of animating labels
+    private boolean doAnimationFrame(long frameTimeNanos) {
+        boolean running = false;
+        for (int i = 0; i < mLabels.size(); i++) {
+            Label label = mLabels.get(i);
+            if (label.isAnimating()) {
+                running |= label.onFrame(frameTimeNanos);
+                addDirtyLabel(label);
+            }
+        }
+
+        invalidateRecording();
+        invalidateSelf();
+        return running;
+    }
+
+    private void drawLabels(Canvas canvas, int width, int height, boolean cacheEnabled) {
+        for (int i = 0; i < mLabels.size(); i++) {
+            mLabels.get(i).draw(canvas, width, height, cacheEnabled);
+        }
+    }
+
+    // Record labels again before next draw, after any label changes
+    private void invalidateRecording() {
+        if (mRenderNode != null) {
+            mRenderNode.invalidate();
+        }
+    }
+
+    // Add the square at the corner which contains the label to dirty rect
+    private void addDirtyLabel(Label label) {
+        final Rect bounds = getBounds();
+        label.getBounds(bounds.width(), bounds.height(), mLabelRect);
+        mLabelRect.offset(bounds.left, bounds.top);
+        mDirtyRect.union(mLabelRect);
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.luxiliu.android.widget;
+
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import androidx.annotation.RequiresApi;
+
+import java.util.ArrayList;
+
+
+/**
+ * LabelFrameClock drives all label animations with a single frame callback, it must only be used on
+ * main thread
+ */
+final class LabelFrameClock {
+    // Frame interval used before Android J, which has no Choreographer
+    private static final long FALLBACK_FRAME_DELAY_MILLIS = 16;
+
+    private static LabelFrameClock sInstance;
+
+    private final ArrayList<Callback> mCallbacks = new ArrayList<>();
+    private boolean mScheduled;
+
+    private Handler mHandler;
+    private Runnable mFallbackFrame;
+    private ChoreographerFrame mChoreographerFrame;
+
+    private LabelFrameClock() {
+    }
+
+    static LabelFrameClock getInstance() {
+        if (sInstance == null) {
+            sInstance = new LabelFrameClock();
+        }
+
+        return sInstance;
+    }
+
+    /**
+     * Start calling back on every frame, until callback returns false or is removed
+     *
+     * @param callback The callback to add
+     */
+    void add(Callback callback) {
+        if (!mCallbacks.contains(callback)) {
+            mCallbacks.add(callback);
+        }
+        schedule();
+    }
+
+    /**
+     * Stop calling back
+     *
+     * @param callback The callback to remove
+     */
+    void remove(Callback callback) {
+        mCallbacks.remove(callback);
+    }
+
+    private void schedule() {
+        if (mScheduled || mCallbacks.isEmpty()) {
+            return;
+        }
+
+        mScheduled = true;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            if (mChoreographerFrame == null) {
+                mChoreographerFrame = new ChoreographerFrame(this);
+            }
+            Choreographer.getInstance().postFrameCallback(mChoreographerFrame);
+        } else {
+            if (mHandler == null) {
+                mHandler = new Handler(Looper.getMainLooper());
+                mFallbackFrame = new Runnable() {
+                    @Override
+                    public void run() {
+                        doFrame(System.nanoTime());
+                    }
+                };
+            }
+            mHandler.postDelayed(mFallbackFrame, FALLBACK_FRAME_DELAY_MILLIS);
+        }
+    }
+
+    private void doFrame(long frameTimeNanos) {
+        mScheduled = false;
+
+        // Backwards, so callbacks can be removed on the way
+        for (int i = mCallbacks.size() - 1; i >= 0; i--) {
+            if (i < mCallbacks.size() && !mCallbacks.get(i).onFrame(frameTimeNanos)) {
+                mCallbacks.remove(i);
+            }
+        }
+
+        schedule();
+    }
+
+    /**
+     * Callback called on every frame
+     */
+    interface Callback {
+        /**
+         * Called on every frame
+         *
+         * @param frameTimeNanos The time of frame, in {@link System#nanoTime()} base
+         * @return True to be called back on next frame
+         */
+        boolean onFrame(long frameTimeNanos);
+    }
+
+    @RequiresApi(Build.VERSION_CODES.JELLY_BEAN)
+    private static final class ChoreographerFrame implements Choreographer.FrameCallback {
+        private final LabelFrameClock mClock;
+
+        ChoreographerFrame(LabelFrameClock clock) {
+            mClock = clock;
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            mClock.doFrame(frameTimeNanos);
+        }
+    }
+}
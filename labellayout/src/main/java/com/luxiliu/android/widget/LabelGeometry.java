@@ -0,0 +1,437 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.luxiliu.android.widget;
+
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Rect;
+import android.graphics.drawable.ColorDrawable;
+import android.graphics.drawable.Drawable;
+import android.text.Layout;
+
+
+/**
+ * LabelGeometry caches the coordinates used to draw a label inside the square at the corner which
+ * contains it, so they don't depend on view size and are only calculated again when the label changes
+ */
+final class LabelGeometry {
+    private static final double SQRT_2 = Math.sqrt(2);
+
+    // The side of the square containing label
+    int size;
+
+    // Label center and rotation
+    int centerX;
+    int centerY;
+    float rotateDegree;
+
+    // Label rectangle before rotation, and the background bounds inside it
+    final Rect labelRect = new Rect();
+    final Rect backgroundBounds = new Rect();
+
+    // Shared shader, shadow and folded edges of the ribbon, only if style has a ribbon
+    RibbonShape ribbon;
+
+    // Whether background is clipped to label rectangle, and repeated from background bounds over it
+    boolean backgroundClipped;
+    boolean backgroundTiled;
+
+    // Bisector line which the text is drawn on
+    final Path bisectorPath = new Path();
+
+    // Text offsets along the bisector line
+    float textHOffset;
+    float textVOffset;
+
+    // Text offsets along the bisector line of live text, and the length they were measured for
+    float liveTextHOffset;
+    float liveTextVOffset;
+    private int mLiveTextLength = -1;
+
+    // Text layout drawn centered on the label, only for RenderMode.LAYOUT
+    Layout textLayout;
+
+    // Paint drawing text along bisector, with the text size picked by auto size
+    Paint textPaint;
+
+    // Reusable buffer for text measurement
+    private final Rect mTextBounds = new Rect();
+
+    private boolean mDirty = true;
+
+    /**
+     * Mark the geometry as stale, it will be calculated again before next draw
+     */
+    void invalidate() {
+        mDirty = true;
+    }
+
+    /**
+     * Check whether the geometry needs to be calculated again
+     *
+     * @return True if the geometry is stale
+     */
+    boolean isDirty() {
+        return mDirty;
+    }
+
+    /**
+     * Copy all coordinates from another geometry
+     *
+     * @param geometry The geometry to copy from
+     */
+    void set(LabelGeometry geometry) {
+        size = geometry.size;
+        centerX = geometry.centerX;
+        centerY = geometry.centerY;
+        rotateDegree = geometry.rotateDegree;
+        labelRect.set(geometry.labelRect);
+        backgroundBounds.set(geometry.backgroundBounds);
+        backgroundClipped = geometry.backgroundClipped;
+        backgroundTiled = geometry.backgroundTiled;
+        ribbon = geometry.ribbon;
+        bisectorPath.set(geometry.bisectorPath);
+        textHOffset = geometry.textHOffset;
+        textVOffset = geometry.textVOffset;
+        textLayout = geometry.textLayout;
+        textPaint = geometry.textPaint;
+        liveTextHOffset = geometry.liveTextHOffset;
+        liveTextVOffset = geometry.liveTextVOffset;
+        mLiveTextLength = geometry.mLiveTextLength;
+        mDirty = geometry.mDirty;
+    }
+
+    /**
+     * Calculate all coordinates of label
+     *
+     * @param style The style of label
+     * @param text  The text of label, may be null
+     */
+    void update(LabelStyle style, String text) {
+        if (style.isAutoSize() && text != null) {
+            style = AutoSizeCache.resolve(text, style);
+        }
+        textPaint = style.getTextPaint();
+
+        final int distance = style.getDistance();
+        final int height = style.getHeight();
+        final LabelLayout.Gravity gravity = style.getGravity();
+        final Drawable background = style.getBackground();
+
+        // Calculate as if view is just large enough to hold the label and its shadow
+        size = calculateExtent(style);
+        final int viewWidth = size;
+        final int viewHeight = size;
+
+        calculateCenterCoordinate(viewWidth, viewHeight, distance, height, gravity);
+        rotateDegree = calculateRotateDegree(gravity);
+
+        int labelHalfWidth = calculateWidth(distance, height) / 2;
+        int labelHalfHeight = height / 2;
+        labelRect.set(centerX - labelHalfWidth, centerY - labelHalfHeight, centerX + labelHalfWidth, centerY + labelHalfHeight);
+        if (background != null) {
+            calculateBackgroundBounds(background, style.getBackgroundScaleType(), labelRect, backgroundBounds);
+        } else {
+            backgroundBounds.setEmpty();
+            backgroundClipped = false;
+            backgroundTiled = false;
+        }
+
+        final LabelRibbon labelRibbon = style.getRibbon();
+        ribbon = labelRibbon != null ? RibbonShape.get(labelRibbon, distance, height, gravity, size, labelRect) : null;
+
+        calculateBisectorCoordinates(viewWidth, viewHeight, distance, height, gravity);
+
+        if (text == null) {
+            textHOffset = 0;
+            textVOffset = 0;
+            textLayout = null;
+        } else if (style.getRenderMode() == LabelLayout.RenderMode.LAYOUT) {
+            textHOffset = 0;
+            textVOffset = 0;
+            textLayout = TextLayoutCache.getLayout(text, style);
+        } else {
+            calculateTextOffsets(text, textPaint, distance, height, gravity);
+            textLayout = null;
+        }
+
+        mLiveTextLength = -1;
+        mDirty = false;
+    }
+
+    /**
+     * Replace the shared text paint and layout with own copies, so the label can be drawn on one thread
+     * while the shared ones are drawn on others. The geometry must be calculated already
+     *
+     * @param style The style of label
+     * @param text  The text of label, may be null
+     */
+    void copyTextResources(LabelStyle style, String text) {
+        textPaint = new Paint(textPaint);
+        if (textLayout != null) {
+            if (style.isAutoSize()) {
+                style = AutoSizeCache.resolve(text, style);
+            }
+            textLayout = TextLayoutCache.createLayout(text, style);
+        }
+    }
+
+    /**
+     * Calculate text offsets of live text, only measuring it when its length changes. The geometry must
+     * be calculated already
+     *
+     * @param style  The style of label
+     * @param text   The buffer containing live text
+     * @param length The length of live text
+     */
+    void updateLiveTextOffsets(LabelStyle style, char[] text, int length) {
+        if (length == mLiveTextLength) {
+            return;
+        }
+
+        // Keep offsets of the text of spec, for the shared pre-rendered label
+        final float hOffset = textHOffset;
+        final float vOffset = textVOffset;
+
+        if (!GlyphRunCache.getTextBounds(text, 0, length, textPaint, mTextBounds)) {
+            textPaint.getTextBounds(text, 0, length, mTextBounds);
+        }
+        calculateTextOffsets(mTextBounds, style.getDistance(), style.getHeight(), style.getGravity());
+        liveTextHOffset = textHOffset;
+        liveTextVOffset = textVOffset;
+        mLiveTextLength = length;
+
+        textHOffset = hOffset;
+        textVOffset = vOffset;
+    }
+
+    /**
+     * Calculate the side of the square, starting from the corner of view, which contains the whole label
+     *
+     * @param distance The distance from vertex to label's edge
+     * @param height   The height of label
+     * @return The side of the square containing label
+     */
+    static int calculateExtent(int distance, int height) {
+        return (int) Math.ceil(SQRT_2 * (distance + height));
+    }
+
+    /**
+     * Calculate the side of the square, starting from the corner of view, which contains the whole label
+     * and the shadow of its ribbon
+     *
+     * @param style The style of label
+     * @return The side of the square containing label and its shadow
+     */
+    static int calculateExtent(LabelStyle style) {
+        // Shadow is blurred beyond the outer edge by its radius, and dropped by half of it
+        final LabelRibbon ribbon = style.getRibbon();
+        final int shadowRadius = ribbon != null ? ribbon.getShadowRadius() : 0;
+        return calculateExtent(style.getDistance(), style.getHeight() + shadowRadius + shadowRadius / 2);
+    }
+
+    /**
+     * Calculate the length of the bisector line inside the label, which is available to text
+     *
+     * @param distance The distance from vertex to label's edge
+     * @param height   The height of label
+     * @return The width available to text
+     */
+    static int calculateTextWidth(int distance, int height) {
+        return 2 * distance + height;
+    }
+
+    // Calculate the absolute position of point intersecting between canvas edge and bisector
+    private static int calculateBisectorIntersectAbsolutePosition(int distance, int height) {
+        return (int) (SQRT_2 * (distance + (height / 2)));
+    }
+
+    // Calculate the starting and ending points coordinates of bisector line, and rebuild the bisector path
+    private void calculateBisectorCoordinates(int viewWidth, int viewHeight, int distance, int height, LabelLayout.Gravity gravity) {
+        final int bisectorIntersectAbsolutePosition = calculateBisectorIntersectAbsolutePosition(distance, height);
+
+        int bisectorStartX;
+        int bisectorStartY;
+        int bisectorEndX;
+        int bisectorEndY;
+        switch (gravity) {
+            case TOP_RIGHT:
+                bisectorStartY = 0;
+                bisectorStartX = viewWidth - bisectorIntersectAbsolutePosition;
+                bisectorEndX = viewWidth;
+                bisectorEndY = bisectorIntersectAbsolutePosition;
+                break;
+
+            case BOTTOM_RIGHT:
+                bisectorStartX = viewWidth - bisectorIntersectAbsolutePosition;
+                bisectorStartY = viewHeight;
+                bisectorEndX = viewWidth;
+                bisectorEndY = viewHeight - bisectorIntersectAbsolutePosition;
+                break;
+
+            case BOTTOM_LEFT:
+                bisectorStartX = 0;
+                bisectorStartY = viewHeight - bisectorIntersectAbsolutePosition;
+                bisectorEndX = bisectorIntersectAbsolutePosition;
+                bisectorEndY = viewHeight;
+                break;
+
+            default:
+                bisectorStartX = 0;
+                bisectorStartY = bisectorIntersectAbsolutePosition;
+                bisectorEndX = bisectorIntersectAbsolutePosition;
+                bisectorEndY = 0;
+                break;
+        }
+
+        bisectorPath.rewind();
+        bisectorPath.moveTo(bisectorStartX, bisectorStartY);
+        bisectorPath.lineTo(bisectorEndX, bisectorEndY);
+    }
+
+    // Calculate text horizontal and vertical offset
+    private void calculateTextOffsets(String text, Paint paint, int distance, int height, LabelLayout.Gravity gravity) {
+        TextMeasureCache.getTextBounds(text, paint, mTextBounds);
+        calculateTextOffsets(mTextBounds, distance, height, gravity);
+    }
+
+    // Calculate text horizontal and vertical offset from measured text bounds
+    private void calculateTextOffsets(Rect textBounds, int distance, int height, LabelLayout.Gravity gravity) {
+        float hOffset = (float) (calculateBisectorIntersectAbsolutePosition(distance, height) / SQRT_2 - textBounds.width() / 2.0);
+        float vOffset;
+        if (distance >= height) {
+            vOffset = (textBounds.height() * 0.5f);
+        } else {
+            if (gravity.equals(LabelLayout.Gravity.TOP_LEFT) || gravity.equals(LabelLayout.Gravity.TOP_RIGHT)) {
+                vOffset = (textBounds.height() * (0.5f + (height - distance) / (float) height * 0.5f));
+            } else {
+                vOffset = (textBounds.height() * (0.5f - (height - distance) / (float) height * 0.5f));
+            }
+        }
+
+        textHOffset = hOffset;
+        textVOffset = vOffset;
+    }
+
+    private void calculateCenterCoordinate(int viewWidth, int viewHeight, int distance, int height, LabelLayout.Gravity gravity) {
+        int x;
+        int y;
+
+        int centerAbsolutePosition = calculateCenterAbsolutePosition(distance, height);
+        switch (gravity) {
+            default:
+                x = centerAbsolutePosition;
+                y = centerAbsolutePosition;
+                break;
+
+            case TOP_RIGHT:
+                x = viewWidth - centerAbsolutePosition;
+                y = centerAbsolutePosition;
+                break;
+
+            case BOTTOM_RIGHT:
+                x = viewWidth - centerAbsolutePosition;
+                y = viewHeight - centerAbsolutePosition;
+                break;
+
+            case BOTTOM_LEFT:
+                x = centerAbsolutePosition;
+                y = viewHeight - centerAbsolutePosition;
+                break;
+
+        }
+
+        centerX = x;
+        centerY = y;
+    }
+
+    private static int calculateCenterAbsolutePosition(int distance, int height) {
+        return (int) ((distance + height / 2) / SQRT_2);
+    }
+
+    private static int calculateWidth(int distance, int height) {
+        return 2 * (distance + height);
+    }
+
+    // Calculate background bounds in label rect for the scale type, keeping the aspect ratio of drawable
+    private void calculateBackgroundBounds(Drawable drawable, LabelLayout.BackgroundScaleType scaleType, Rect labelRect, Rect rect) {
+        final int intrinsicWidth = drawable.getIntrinsicWidth();
+        final int intrinsicHeight = drawable.getIntrinsicHeight();
+        final int labelWidth = labelRect.width();
+        final int labelHeight = labelRect.height();
+
+        backgroundTiled = false;
+        if (drawable instanceof ColorDrawable || intrinsicWidth <= 0 || intrinsicHeight <= 0 || labelWidth <= 0 || labelHeight <= 0) {
+            // No intrinsic size, fill the whole label
+            rect.set(labelRect);
+            backgroundClipped = false;
+            return;
+        }
+
+        final float fitScale = Math.min(labelWidth / (float) intrinsicWidth, labelHeight / (float) intrinsicHeight);
+        float scale;
+        switch (scaleType) {
+            case FIT:
+                scale = fitScale;
+                break;
+
+            case FILL:
+                scale = Math.max(labelWidth / (float) intrinsicWidth, labelHeight / (float) intrinsicHeight);
+                break;
+
+            case CENTER:
+                scale = 1;
+                break;
+
+            case TILE:
+                // Tiles start at the top left of label
+                rect.set(labelRect.left, labelRect.top, labelRect.left + intrinsicWidth, labelRect.top + intrinsicHeight);
+                backgroundTiled = true;
+                backgroundClipped = true;
+                return;
+
+            default:
+                // Scale down only
+                scale = Math.min(fitScale, 1);
+                break;
+        }
+
+        final float width = intrinsicWidth * scale;
+        final float height = intrinsicHeight * scale;
+        final int left = Math.round(labelRect.left + (labelWidth - width) / 2);
+        final int top = Math.round(labelRect.top + (labelHeight - height) / 2);
+        rect.set(left, top, left + Math.round(width), top + Math.round(height));
+        backgroundClipped = !labelRect.contains(rect);
+    }
+
+    private static float calculateRotateDegree(LabelLayout.Gravity gravity) {
+        float degree;
+
+        switch (gravity) {
+            case BOTTOM_RIGHT:
+            default:
+                degree = -45;
+                break;
+
+            case TOP_RIGHT:
+            case BOTTOM_LEFT:
+                degree = 45;
+                break;
+        }
+
+        return degree;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.luxiliu.android.widget;
+
+import android.graphics.Canvas;
+import android.view.View;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+
+/**
+ * LabelItemDecoration draws a label over each item of RecyclerView, without any extra view in item
+ * layouts. RecyclerView is not a dependency of this library, add it to the app to use this class
+ */
+public class LabelItemDecoration extends RecyclerView.ItemDecoration {
+    private final LabelProvider mLabelProvider;
+
+    private boolean mCacheEnabled = true;
+
+    // Drawing state reused for all items
+    private Label mLabel;
+
+    /**
+     * Create a decoration
+     *
+     * @param labelProvider The provider of label for each item
+     */
+    public LabelItemDecoration(LabelProvider labelProvider) {
+        mLabelProvider = labelProvider;
+    }
+
+    /**
+     * Check whether labels are drawn from pre-rendered bitmaps shared by identical labels
+     *
+     * @return True if label cache is enabled, the default
+     * @see LabelBitmapCache
+     */
+    public boolean isCacheEnabled() {
+        return mCacheEnabled;
+    }
+
+    /**
+     * Set whether labels are drawn from pre-rendered bitmaps shared by identical labels. Without cache,
+     * geometry is calculated again whenever the label differs from the previous item's
+     *
+     * @param cacheEnabled True to enable label cache
+     * @see LabelBitmapCache
+     */
+    public void setCacheEnabled(boolean cacheEnabled) {
+        mCacheEnabled = cacheEnabled;
+        if (mLabel != null) {
+            mLabel.invalidateCache();
+        }
+    }
+
+    @Override
+    public void onDrawOver(Canvas canvas, RecyclerView parent, RecyclerView.State state) {
+        super.onDrawOver(canvas, parent, state);
+
+        for (int i = 0; i < parent.getChildCount(); i++) {
+            View child = parent.getChildAt(i);
+            int position = parent.getChildAdapterPosition(child);
+            if (position == RecyclerView.NO_POSITION) {
+                continue;
+            }
+
+            LabelSpec spec = mLabelProvider.getLabel(position);
+            if (spec != null) {
+                drawLabel(canvas, child, spec);
+            }
+        }
+    }
+
+    private void drawLabel(Canvas canvas, View child, LabelSpec spec) {
+        final int width = child.getWidth();
+        final int height = child.getHeight();
+
+        if (mLabel == null) {
+            mLabel = new Label(spec);
+        } else {
+            mLabel.setSpec(spec);
+        }
+
+        final int saveCount = canvas.save();
+        canvas.translate(child.getLeft() + child.getTranslationX(), child.getTop() + child.getTranslationY());
+        mLabel.draw(canvas, width, height, mCacheEnabled);
+        canvas.restoreToCount(saveCount);
+    }
+
+    /**
+     * Provider of label for each item
+     */
+    public interface LabelProvider {
+        /**
+         * Get the label of item
+         *
+         * @param adapterPosition The adapter position of item
+         * @return The label of item, null for no label
+         */
+        LabelSpec getLabel(int adapterPosition);
+    }
+}
@@ -16,34 +16,24 @@
 package com.luxiliu.android.widget;
 
 import android.content.Context;
-import android.content.res.TypedArray;
 import android.graphics.Canvas;
-import android.graphics.Color;
-import android.graphics.Paint;
-import android.graphics.Path;
-import android.graphics.Rect;
-import android.graphics.drawable.ColorDrawable;
+import android.graphics.Typeface;
 import android.graphics.drawable.Drawable;
+import android.os.Build;
 import android.util.AttributeSet;
-import android.util.Log;
+import android.view.View;
 import android.widget.FrameLayout;
 
 
 /**
- * LabelLayout provides a label at the corner to display text
+ * LabelLayout provides a label at the corner to display text, more labels can be added at other corners.
+ * It's a thin wrapper of {@link LabelDrawable}, which can also be used without wrapping views
  */
 public class LabelLayout extends FrameLayout {
-    private int mLabelDistance;
-    private int mLabelHeight;
-    private Drawable mLabelBackground;
-    private Gravity mLabelGravity;
+    // Labels drawn in one pass, the first one is the primary label configured by XML and label setters
+    private final LabelDrawable mLabelDrawable;
 
-    private String mLabelText;
-    private int mLabelTextSize;
-    private int mLabelTextColor;
-    private TextDirection mLabelTextDirection;
-
-    private final Paint mTextPaint;
+    private DrawOrder mLabelDrawOrder;
 
     public LabelLayout(Context context) {
         this(context, null);
@@ -59,37 +49,184 @@ public class LabelLayout extends FrameLayout {
         // Enable 'onDraw()'
         setWillNotDraw(false);
 
-        TypedArray typedArray = context.getTheme().obtainStyledAttributes(attrs, R.styleable.LabelLayout, defStyleAttr, 0);
-        mLabelDistance = typedArray.getDimensionPixelSize(R.styleable.LabelLayout_labelDistance, 0);
-        mLabelHeight = typedArray.getDimensionPixelSize(R.styleable.LabelLayout_labelHeight, 0);
-        mLabelBackground = typedArray.getDrawable(R.styleable.LabelLayout_labelBackground);
-        mLabelGravity = Gravity.values()[typedArray.getInt(R.styleable.LabelLayout_labelGravity, Gravity.TOP_LEFT.ordinal())];
-        mLabelText = typedArray.getString(R.styleable.LabelLayout_labelText);
-        mLabelTextSize = typedArray.getDimensionPixelSize(R.styleable.LabelLayout_labelTextSize, (int) new Paint().getTextSize());
-        mLabelTextColor = typedArray.getColor(R.styleable.LabelLayout_labelTextColor, Color.BLACK);
-        mLabelTextDirection = TextDirection.values()[typedArray.getInt(R.styleable.LabelLayout_labelTextDirection, TextDirection.LEFT_TO_RIGHT.ordinal())];
-        typedArray.recycle();
-
-        // Setup text paint
-        mTextPaint = new Paint();
-        mTextPaint.setDither(true);
-        mTextPaint.setAntiAlias(true);
-        mTextPaint.setStrokeJoin(Paint.Join.ROUND);
-        mTextPaint.setStrokeCap(Paint.Cap.SQUARE);
+        LabelAttributeCache.Attributes attributes = LabelAttributeCache.obtain(context, attrs, defStyleAttr);
+        mLabelDrawable = new LabelDrawable(new LabelSpec(attributes.text, attributes.style));
+        mLabelDrawable.setCacheEnabled(attributes.cacheEnabled);
+        mLabelDrawable.setLayerEnabled(attributes.layerEnabled);
+        mLabelDrawable.setCallback(this);
+        mLabelDrawOrder = attributes.drawOrder;
+
+        // Hidden until attached, so a layout which is never attached never registers with the shared clocks
+        mLabelDrawable.setVisible(false, false);
     }
 
     @Override
-    public void onDrawForeground(Canvas canvas) {
-        super.onDrawForeground(canvas);
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+
+        mLabelDrawable.setBounds(0, 0, w, h);
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+
+        updateLabelVisibility();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+
+        // Pause label animations and live text, e.g. while recycled
+        mLabelDrawable.setVisible(false, false);
+    }
+
+    @Override
+    protected void onVisibilityChanged(View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
 
-        drawSelf(canvas);
+        // Called from the constructor of View, before label drawable is created
+        if (mLabelDrawable != null) {
+            updateLabelVisibility();
+        }
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+
+        updateLabelVisibility();
+    }
+
+    // Labels are only updated while attached and actually shown
+    private void updateLabelVisibility() {
+        mLabelDrawable.setVisible(getWindowToken() != null && getWindowVisibility() == VISIBLE && isShown(), false);
+    }
+
+    @Override
+    protected boolean verifyDrawable(Drawable who) {
+        return who == mLabelDrawable || super.verifyDrawable(who);
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+
+        if (mLabelDrawOrder == DrawOrder.UNDER_CHILDREN) {
+            mLabelDrawable.draw(canvas);
+        }
     }
 
     @Override
     protected void dispatchDraw(Canvas canvas) {
         super.dispatchDraw(canvas);
 
-        drawSelf(canvas);
+        // 'onDrawForeground()' is not called before Android M, so foreground label falls back to here
+        if (mLabelDrawOrder == DrawOrder.OVER_CHILDREN
+                || (mLabelDrawOrder == DrawOrder.FOREGROUND && Build.VERSION.SDK_INT < Build.VERSION_CODES.M)) {
+            mLabelDrawable.draw(canvas);
+        }
+    }
+
+    @Override
+    public void onDrawForeground(Canvas canvas) {
+        super.onDrawForeground(canvas);
+
+        if (mLabelDrawOrder == DrawOrder.FOREGROUND) {
+            mLabelDrawable.draw(canvas);
+        }
+    }
+
+    /**
+     * Get the number of labels, including the primary label
+     *
+     * @return The number of labels
+     */
+    public int getLabelCount() {
+        return mLabelDrawable.getLabelCount();
+    }
+
+    /**
+     * Get a label, index 0 is the primary label configured by XML and label setters
+     *
+     * @param index The index of label
+     * @return The label
+     */
+    public LabelSpec getLabel(int index) {
+        return mLabelDrawable.getLabel(index);
+    }
+
+    /**
+     * Replace a label, index 0 is the primary label configured by XML and label setters
+     *
+     * @param index The index of label
+     * @param spec  The new label
+     */
+    public void setLabel(int index, LabelSpec spec) {
+        mLabelDrawable.setLabel(index, spec);
+    }
+
+    /**
+     * Replace a label with one prepared ahead, usually in 'onBindViewHolder()'
+     *
+     * @param index    The index of label
+     * @param prepared The prepared label
+     * @see LabelSpec#prepareAsync(java.util.concurrent.Executor, boolean, PreparedLabel.Callback)
+     */
+    public void setLabel(int index, PreparedLabel prepared) {
+        mLabelDrawable.setLabel(index, prepared);
+    }
+
+    /**
+     * Apply the change of a label in 'onBindViewHolder()' with payloads, without touching children
+     * or requesting layout
+     *
+     * @param payload The change of label
+     * @see LabelPayload#diff(LabelSpec, LabelSpec)
+     */
+    public void applyPayload(LabelPayload payload) {
+        mLabelDrawable.applyPayload(payload);
+    }
+
+    /**
+     * Add a label, usually at another corner, drawn in the same pass as the primary label
+     *
+     * @param spec The label to add
+     */
+    public void addLabel(LabelSpec spec) {
+        mLabelDrawable.addLabel(spec);
+    }
+
+    /**
+     * Remove a label added by {@link #addLabel(LabelSpec)}
+     *
+     * @param index The index of label, the primary label at index 0 can't be removed
+     */
+    public void removeLabel(int index) {
+        if (index == 0) {
+            throw new IllegalArgumentException("The primary label can't be removed");
+        }
+
+        mLabelDrawable.removeLabel(index);
+    }
+
+    /**
+     * Get the style of label
+     *
+     * @return The style of label
+     */
+    public LabelStyle getLabelStyle() {
+        return getLabel(0).getStyle();
+    }
+
+    /**
+     * Set the style of label, the same style can be shared by many labels
+     *
+     * @param labelStyle The style of label
+     */
+    public void setLabelStyle(LabelStyle labelStyle) {
+        setLabel(0, getLabel(0).withStyle(labelStyle));
     }
 
     /**
@@ -98,7 +235,7 @@ public class LabelLayout extends FrameLayout {
      * @return The distance from vertex to label's edge
      */
     public int getLabelDistance() {
-        return mLabelDistance;
+        return getLabelStyle().getDistance();
     }
 
     /**
@@ -107,8 +244,9 @@ public class LabelLayout extends FrameLayout {
      * @param labelDistance The distance from vertex to label's edge
      */
     public void setLabelDistance(int labelDistance) {
-        mLabelDistance = labelDistance;
-        invalidate();
+        if (getLabelStyle().getDistance() != labelDistance) {
+            setLabelStyle(new LabelStyle.Builder(getLabelStyle()).setDistance(labelDistance).build());
+        }
     }
 
     /**
@@ -117,7 +255,7 @@ public class LabelLayout extends FrameLayout {
      * @return The height of label
      */
     public int getLabelHeight() {
-        return mLabelHeight;
+        return getLabelStyle().getHeight();
     }
 
     /**
@@ -126,8 +264,9 @@ public class LabelLayout extends FrameLayout {
      * @param labelHeight The height of label
      */
     public void setLabelHeight(int labelHeight) {
-        mLabelHeight = labelHeight;
-        invalidate();
+        if (getLabelStyle().getHeight() != labelHeight) {
+            setLabelStyle(new LabelStyle.Builder(getLabelStyle()).setHeight(labelHeight).build());
+        }
     }
 
     /**
@@ -136,7 +275,7 @@ public class LabelLayout extends FrameLayout {
      * @return The background of label
      */
     public Drawable getLabelBackground() {
-        return mLabelBackground;
+        return getLabelStyle().getBackground();
     }
 
     /**
@@ -145,8 +284,51 @@ public class LabelLayout extends FrameLayout {
      * @param labelBackground The background of label
      */
     public void setLabelBackground(Drawable labelBackground) {
-        mLabelBackground = labelBackground;
-        invalidate();
+        if (getLabelStyle().getBackground() != labelBackground) {
+            setLabelStyle(new LabelStyle.Builder(getLabelStyle()).setBackground(labelBackground).build());
+        }
+    }
+
+    /**
+     * Get the built-in ribbon of label
+     *
+     * @return The ribbon of label, or null if there is none
+     */
+    public LabelRibbon getLabelRibbon() {
+        return getLabelStyle().getRibbon();
+    }
+
+    /**
+     * Set the built-in ribbon of label, drawn under label background
+     *
+     * @param labelRibbon The ribbon of label, or null for no ribbon
+     */
+    public void setLabelRibbon(LabelRibbon labelRibbon) {
+        LabelRibbon ribbon = getLabelStyle().getRibbon();
+        if (ribbon != null ? !ribbon.equals(labelRibbon) : labelRibbon != null) {
+            setLabelStyle(new LabelStyle.Builder(getLabelStyle()).setRibbon(labelRibbon).build());
+        }
+    }
+
+    /**
+     * Get how background is scaled in label
+     *
+     * @return The scale type of background
+     * @see BackgroundScaleType
+     */
+    public BackgroundScaleType getLabelBackgroundScaleType() {
+        return getLabelStyle().getBackgroundScaleType();
+    }
+
+    /**
+     * Set how background is scaled in label
+     *
+     * @param labelBackgroundScaleType The scale type of background
+     */
+    public void setLabelBackgroundScaleType(BackgroundScaleType labelBackgroundScaleType) {
+        if (getLabelStyle().getBackgroundScaleType() != labelBackgroundScaleType) {
+            setLabelStyle(new LabelStyle.Builder(getLabelStyle()).setBackgroundScaleType(labelBackgroundScaleType).build());
+        }
     }
 
     /**
@@ -156,7 +338,7 @@ public class LabelLayout extends FrameLayout {
      * @see Gravity
      */
     public Gravity getLabelGravity() {
-        return mLabelGravity;
+        return getLabelStyle().getGravity();
     }
 
     /**
@@ -165,8 +347,9 @@ public class LabelLayout extends FrameLayout {
      * @param labelGravity The gravity of label
      */
     public void setLabelGravity(Gravity labelGravity) {
-        mLabelGravity = labelGravity;
-        invalidate();
+        if (getLabelStyle().getGravity() != labelGravity) {
+            setLabelStyle(new LabelStyle.Builder(getLabelStyle()).setGravity(labelGravity).build());
+        }
     }
 
     /**
@@ -175,7 +358,7 @@ public class LabelLayout extends FrameLayout {
      * @return The text of label
      */
     public String getLabelText() {
-        return mLabelText;
+        return getLabel(0).getText();
     }
 
     /**
@@ -184,8 +367,18 @@ public class LabelLayout extends FrameLayout {
      * @param labelText The text of label
      */
     public void setLabelText(String labelText) {
-        mLabelText = labelText;
-        invalidate();
+        setLabel(0, getLabel(0).withText(labelText));
+    }
+
+    /**
+     * Set live text of label, e.g. a countdown, drawn instead of label text. It's updated by a shared
+     * ticker every second while label is attached and shown, without allocating a string per update
+     *
+     * @param liveText The live text, or null to draw label text again
+     * @see LiveLabelText#countdown(long)
+     */
+    public void setLabelLiveText(LiveLabelText liveText) {
+        mLabelDrawable.setLiveText(0, liveText);
     }
 
     /**
@@ -194,7 +387,7 @@ public class LabelLayout extends FrameLayout {
      * @return The text size of label
      */
     public int getLabelTextSize() {
-        return mLabelTextSize;
+        return getLabelStyle().getTextSize();
     }
 
     /**
@@ -203,8 +396,9 @@ public class LabelLayout extends FrameLayout {
      * @param labelTextSize The text size of label
      */
     public void setLabelTextSize(int labelTextSize) {
-        mLabelTextSize = labelTextSize;
-        invalidate();
+        if (getLabelStyle().getTextSize() != labelTextSize) {
+            setLabelStyle(new LabelStyle.Builder(getLabelStyle()).setTextSize(labelTextSize).build());
+        }
     }
 
     /**
@@ -213,7 +407,7 @@ public class LabelLayout extends FrameLayout {
      * @return The text color of label
      */
     public int getLabelTextColor() {
-        return mLabelTextColor;
+        return getLabelStyle().getTextColor();
     }
 
     /**
@@ -222,8 +416,29 @@ public class LabelLayout extends FrameLayout {
      * @param labelTextColor The text color of label
      */
     public void setLabelTextColor(int labelTextColor) {
-        mLabelTextColor = labelTextColor;
-        invalidate();
+        if (getLabelStyle().getTextColor() != labelTextColor) {
+            setLabelStyle(new LabelStyle.Builder(getLabelStyle()).setTextColor(labelTextColor).build());
+        }
+    }
+
+    /**
+     * Get the typeface of label text
+     *
+     * @return The typeface of label text, null for the default typeface
+     */
+    public Typeface getLabelTypeface() {
+        return getLabelStyle().getTypeface();
+    }
+
+    /**
+     * Set the typeface of label text
+     *
+     * @param labelTypeface The typeface of label text, null for the default typeface
+     */
+    public void setLabelTypeface(Typeface labelTypeface) {
+        if (getLabelStyle().getTypeface() != labelTypeface) {
+            setLabelStyle(new LabelStyle.Builder(getLabelStyle()).setTypeface(labelTypeface).build());
+        }
     }
 
     /**
@@ -232,7 +447,7 @@ public class LabelLayout extends FrameLayout {
      * @return The text direction
      */
     public TextDirection getLabelTextDirection() {
-        return mLabelTextDirection;
+        return getLabelStyle().getTextDirection();
     }
 
     /**
@@ -241,224 +456,426 @@ public class LabelLayout extends FrameLayout {
      * @param textDirection The text direction
      */
     public void setLabelTextDirection(TextDirection textDirection) {
-        mLabelTextDirection = textDirection;
-        invalidate();
-    }
-
-    // Calculate the absolute position of point intersecting between canvas edge and bisector
-    private int calculateBisectorIntersectAbsolutePosition(int distance, int height) {
-        return (int) (Math.sqrt(2) * (distance + (height / 2)));
-    }
-
-    // Calculate the starting and ending points coordinates of bisector line
-    private int[] calculateBisectorCoordinates(int distance, int height, Gravity gravity) {
-        final int bisectorIntersectAbsolutePosition = calculateBisectorIntersectAbsolutePosition(distance, height);
-        int[] results = new int[4];
+        if (getLabelStyle().getTextDirection() != textDirection) {
+            setLabelStyle(new LabelStyle.Builder(getLabelStyle()).setTextDirection(textDirection).build());
+        }
+    }
 
-        int bisectorStartX;
-        int bisectorStartY;
-        int bisectorEndX;
-        int bisectorEndY;
-        switch (gravity) {
-            case TOP_RIGHT:
-                bisectorStartY = 0;
-                bisectorStartX = getMeasuredWidth() - bisectorIntersectAbsolutePosition;
-                bisectorEndX = getMeasuredWidth();
-                bisectorEndY = bisectorIntersectAbsolutePosition;
-                break;
+    /**
+     * Get how label text is rendered
+     *
+     * @return The render mode of label text
+     * @see RenderMode
+     */
+    public RenderMode getLabelRenderMode() {
+        return getLabelStyle().getRenderMode();
+    }
 
-            case BOTTOM_RIGHT:
-                bisectorStartX = getMeasuredWidth() - bisectorIntersectAbsolutePosition;
-                bisectorStartY = getMeasuredHeight();
-                bisectorEndX = getMeasuredWidth();
-                bisectorEndY = getMeasuredHeight() - bisectorIntersectAbsolutePosition;
-                break;
+    /**
+     * Set how label text is rendered
+     *
+     * @param labelRenderMode The render mode of label text
+     */
+    public void setLabelRenderMode(RenderMode labelRenderMode) {
+        if (getLabelStyle().getRenderMode() != labelRenderMode) {
+            setLabelStyle(new LabelStyle.Builder(getLabelStyle()).setRenderMode(labelRenderMode).build());
+        }
+    }
 
-            case BOTTOM_LEFT:
-                bisectorStartX = 0;
-                bisectorStartY = getMeasuredHeight() - bisectorIntersectAbsolutePosition;
-                bisectorEndX = bisectorIntersectAbsolutePosition;
-                bisectorEndY = getMeasuredHeight();
-                break;
+    /**
+     * Get the maximum number of text lines, only used by {@link RenderMode#LAYOUT}
+     *
+     * @return The maximum number of text lines
+     */
+    public int getLabelMaxLines() {
+        return getLabelStyle().getMaxLines();
+    }
 
-            default:
-                bisectorStartX = 0;
-                bisectorStartY = bisectorIntersectAbsolutePosition;
-                bisectorEndX = bisectorIntersectAbsolutePosition;
-                bisectorEndY = 0;
-                break;
+    /**
+     * Set the maximum number of text lines, only used by {@link RenderMode#LAYOUT}
+     *
+     * @param labelMaxLines The maximum number of text lines
+     */
+    public void setLabelMaxLines(int labelMaxLines) {
+        if (getLabelStyle().getMaxLines() != labelMaxLines) {
+            setLabelStyle(new LabelStyle.Builder(getLabelStyle()).setMaxLines(labelMaxLines).build());
         }
+    }
 
-        results[0] = bisectorStartX;
-        results[1] = bisectorStartY;
-        results[2] = bisectorEndX;
-        results[3] = bisectorEndY;
-
-        return results;
-    }
-
-    // Calculate text horizontal and vertical offset
-    private float[] calculateTextOffsets(String text, Paint paint, int distance, int height, Gravity gravity) {
-        float[] offsets = new float[2];
-
-        Rect textBounds = new Rect();
-        paint.getTextBounds(text, 0, text.length(), textBounds);
-
-        float hOffset = (float) (calculateBisectorIntersectAbsolutePosition(distance, height) / Math.sqrt(2) - textBounds.width() / 2.0);
-        float vOffset;
-        if (distance >= height) {
-            vOffset = (textBounds.height() * 0.5f);
-        } else {
-            if (gravity.equals(Gravity.TOP_LEFT) || gravity.equals(Gravity.TOP_RIGHT)) {
-                vOffset = (textBounds.height() * (0.5f + (height - distance) / (float) height * 0.5f));
-            } else {
-                vOffset = (textBounds.height() * (0.5f - (height - distance) / (float) height * 0.5f));
-            }
+    /**
+     * Check whether text size is picked to fit the label, instead of using {@link #getLabelTextSize()}
+     *
+     * @return True if auto size is enabled
+     */
+    public boolean isLabelAutoSize() {
+        return getLabelStyle().isAutoSize();
+    }
+
+    /**
+     * Set whether text size is picked to fit the label, instead of using {@link #setLabelTextSize(int)}.
+     * The largest text size in range which fits is searched once per text and label size
+     *
+     * @param labelAutoSize True to enable auto size
+     * @see AutoSizeCache
+     */
+    public void setLabelAutoSize(boolean labelAutoSize) {
+        if (getLabelStyle().isAutoSize() != labelAutoSize) {
+            setLabelStyle(new LabelStyle.Builder(getLabelStyle()).setAutoSize(labelAutoSize).build());
         }
+    }
 
-        Log.d(LabelLayout.class.getSimpleName(), String.format("%d, %d, %f", distance, height, vOffset));
-
-        offsets[0] = hOffset;
-        offsets[1] = vOffset;
+    /**
+     * Set the range of text sizes picked by auto size
+     *
+     * @param minTextSize The minimum text size
+     * @param maxTextSize The maximum text size
+     */
+    public void setLabelAutoSizeTextSizeRange(int minTextSize, int maxTextSize) {
+        if (getLabelStyle().getAutoSizeMinTextSize() != minTextSize || getLabelStyle().getAutoSizeMaxTextSize() != maxTextSize) {
+            setLabelStyle(new LabelStyle.Builder(getLabelStyle()).setAutoSizeTextSizeRange(minTextSize, maxTextSize).build());
+        }
+    }
 
-        return offsets;
+    /**
+     * Get the draw order of label
+     *
+     * @return The draw order of label
+     * @see DrawOrder
+     */
+    public DrawOrder getLabelDrawOrder() {
+        return mLabelDrawOrder;
     }
 
-    private int[] calculateCenterCoordinate(int distance, int height, Gravity gravity) {
-        int[] results = new int[2];
-        int x;
-        int y;
+    /**
+     * Set the draw order of label
+     *
+     * @param labelDrawOrder The draw order of label
+     */
+    public void setLabelDrawOrder(DrawOrder labelDrawOrder) {
+        if (mLabelDrawOrder == labelDrawOrder) {
+            return;
+        }
 
-        int centerAbsolutePosition = calculateCenterAbsolutePosition(distance, height);
-        switch (gravity) {
-            default:
-                x = centerAbsolutePosition;
-                y = centerAbsolutePosition;
-                break;
+        mLabelDrawOrder = labelDrawOrder;
+        mLabelDrawable.invalidateLabels();
+    }
 
-            case TOP_RIGHT:
-                x = getMeasuredWidth() - centerAbsolutePosition;
-                y = centerAbsolutePosition;
-                break;
-
-            case BOTTOM_RIGHT:
-                x = getMeasuredWidth() - centerAbsolutePosition;
-                y = getMeasuredHeight() - centerAbsolutePosition;
-                break;
-
-            case BOTTOM_LEFT:
-                x = centerAbsolutePosition;
-                y = getMeasuredHeight() - centerAbsolutePosition;
-                break;
-
-        }
-
-        results[0] = x;
-        results[1] = y;
-        return results;
-    }
-
-    private int calculateCenterAbsolutePosition(int distance, int height) {
-        return (int) ((distance + height / 2) / Math.sqrt(2));
+    /**
+     * Check whether label is drawn from a pre-rendered bitmap shared by identical labels
+     *
+     * @return True if label cache is enabled
+     * @see LabelBitmapCache
+     */
+    public boolean isLabelCacheEnabled() {
+        return mLabelDrawable.isCacheEnabled();
     }
 
-    private int calculateWidth(int distance, int height) {
-        return 2 * (distance + height);
+    /**
+     * Set whether label is drawn from a pre-rendered bitmap shared by identical labels
+     *
+     * @param labelCacheEnabled True to enable label cache
+     * @see LabelBitmapCache
+     */
+    public void setLabelCacheEnabled(boolean labelCacheEnabled) {
+        mLabelDrawable.setCacheEnabled(labelCacheEnabled);
     }
 
-    private Rect calculateBackgroundBounds(Drawable drawable, Rect labelRect) {
-        Rect rect;
+    /**
+     * Check whether label is drawn once into a layer, which is replayed until label changes
+     *
+     * @return True if label layer is enabled
+     */
+    public boolean isLabelLayerEnabled() {
+        return mLabelDrawable.isLayerEnabled();
+    }
 
-        if (drawable instanceof ColorDrawable) {
-            rect = new Rect(labelRect);
-        } else {
-            rect = new Rect();
+    /**
+     * Set whether label is drawn once into a layer, which is replayed until label changes, e.g. while
+     * the view is animated
+     *
+     * @param labelLayerEnabled True to enable label layer
+     * @see LabelDrawable#setLayerEnabled(boolean)
+     */
+    public void setLabelLayerEnabled(boolean labelLayerEnabled) {
+        mLabelDrawable.setLayerEnabled(labelLayerEnabled);
+    }
 
-            if (drawable.getIntrinsicWidth() <= labelRect.width() && drawable.getIntrinsicHeight() <= labelRect.height()) {
-                // No need to scale
-                rect.left = labelRect.centerX() - drawable.getIntrinsicWidth() / 2;
-                rect.top = labelRect.centerY() - drawable.getIntrinsicHeight() / 2;
-                rect.right = labelRect.centerX() + drawable.getIntrinsicWidth() / 2;
-                rect.bottom = labelRect.centerY() + drawable.getIntrinsicHeight() / 2;
-            } else {
-                // Need to scale
-                int width;
-                int height;
-                int ratio = drawable.getIntrinsicWidth() / drawable.getIntrinsicHeight();
-                if (drawable.getIntrinsicWidth() / drawable.getIntrinsicHeight() >= labelRect.width() / labelRect.height()) {
-                    // Scale to fill width
-                    width = labelRect.width();
-                    height = labelRect.width() / ratio;
-                } else {
-                    // Scale to fill height
-                    width = labelRect.height() * ratio;
-                    height = labelRect.height();
-                }
+    /**
+     * Start an animation of label, replacing its running animation. It only runs while the layout is
+     * attached and shown, an animation started before waits until then
+     *
+     * @param animation The animation to start
+     * @see LabelAnimation
+     */
+    public void startLabelAnimation(LabelAnimation animation) {
+        mLabelDrawable.startAnimation(0, animation);
+    }
 
-                rect.left = labelRect.centerX() - width / 2;
-                rect.top = labelRect.centerY() - height / 2;
-                rect.right = labelRect.centerX() + width / 2;
-                rect.bottom = labelRect.centerY() + height / 2;
-            }
-        }
+    /**
+     * Stop the running animation of label, leaving it as it's without animation
+     */
+    public void cancelLabelAnimation() {
+        mLabelDrawable.cancelAnimation(0);
+    }
 
-        return rect;
+    /**
+     * Start a batch update of label properties, changes take effect at once on {@link Editor#apply()}
+     *
+     * @return The editor of label properties
+     */
+    public Editor edit() {
+        return new Editor();
     }
 
-    private float calculateRotateDegree(Gravity gravity) {
-        float degree;
+    /**
+     * Editor updates several label properties with a single geometry calculation and invalidation
+     */
+    public final class Editor {
+        private String mText = getLabelText();
+        private final LabelStyle.Builder mStyleBuilder = new LabelStyle.Builder(getLabelStyle());
+
+        private Editor() {
+        }
 
-        switch (gravity) {
-            case BOTTOM_RIGHT:
-            default:
-                degree = -45;
-                break;
+        /**
+         * Set the distance from vertex to label's edge
+         *
+         * @param labelDistance The distance from vertex to label's edge
+         * @return This editor
+         */
+        public Editor distance(int labelDistance) {
+            mStyleBuilder.setDistance(labelDistance);
+            return this;
+        }
 
-            case TOP_RIGHT:
-            case BOTTOM_LEFT:
-                degree = 45;
-                break;
+        /**
+         * Set the height of label
+         *
+         * @param labelHeight The height of label
+         * @return This editor
+         */
+        public Editor height(int labelHeight) {
+            mStyleBuilder.setHeight(labelHeight);
+            return this;
         }
 
-        return degree;
-    }
+        /**
+         * Set the background of label
+         *
+         * @param labelBackground The background of label
+         * @return This editor
+         */
+        public Editor background(Drawable labelBackground) {
+            mStyleBuilder.setBackground(labelBackground);
+            return this;
+        }
+
+        /**
+         * Set the built-in ribbon of label
+         *
+         * @param labelRibbon The ribbon of label, or null for no ribbon
+         * @return This editor
+         */
+        public Editor ribbon(LabelRibbon labelRibbon) {
+            mStyleBuilder.setRibbon(labelRibbon);
+            return this;
+        }
+
+        /**
+         * Set how background is scaled in label
+         *
+         * @param labelBackgroundScaleType The scale type of background
+         * @return This editor
+         */
+        public Editor backgroundScaleType(BackgroundScaleType labelBackgroundScaleType) {
+            mStyleBuilder.setBackgroundScaleType(labelBackgroundScaleType);
+            return this;
+        }
+
+        /**
+         * Set the gravity of label
+         *
+         * @param labelGravity The gravity of label
+         * @return This editor
+         */
+        public Editor gravity(Gravity labelGravity) {
+            mStyleBuilder.setGravity(labelGravity);
+            return this;
+        }
+
+        /**
+         * Set the text of label
+         *
+         * @param labelText The text of label
+         * @return This editor
+         */
+        public Editor text(String labelText) {
+            mText = labelText;
+            return this;
+        }
+
+        /**
+         * Set the text size of label
+         *
+         * @param labelTextSize The text size of label
+         * @return This editor
+         */
+        public Editor textSize(int labelTextSize) {
+            mStyleBuilder.setTextSize(labelTextSize);
+            return this;
+        }
 
-    private void drawSelf(Canvas canvas) {
-        // Draw background
-        int[] centerCoordinate = calculateCenterCoordinate(mLabelDistance, mLabelHeight, mLabelGravity);
-        int labelHalfWidth = calculateWidth(mLabelDistance, mLabelHeight) / 2;
-        int labelHalfHeight = mLabelHeight / 2;
-        Rect labelRect = new Rect(centerCoordinate[0] - labelHalfWidth, centerCoordinate[1] - labelHalfHeight, centerCoordinate[0] + labelHalfWidth, centerCoordinate[1] + labelHalfHeight);
-        mLabelBackground.setBounds(calculateBackgroundBounds(mLabelBackground, labelRect));
+        /**
+         * Set the text color of label
+         *
+         * @param labelTextColor The text color of label
+         * @return This editor
+         */
+        public Editor textColor(int labelTextColor) {
+            mStyleBuilder.setTextColor(labelTextColor);
+            return this;
+        }
+
+        /**
+         * Set the typeface of label text
+         *
+         * @param labelTypeface The typeface of label text, null for the default typeface
+         * @return This editor
+         */
+        public Editor typeface(Typeface labelTypeface) {
+            mStyleBuilder.setTypeface(labelTypeface);
+            return this;
+        }
+
+        /**
+         * Set text direction
+         *
+         * @param textDirection The text direction
+         * @return This editor
+         */
+        public Editor textDirection(TextDirection textDirection) {
+            mStyleBuilder.setTextDirection(textDirection);
+            return this;
+        }
 
-        canvas.save();
-        canvas.rotate(calculateRotateDegree(mLabelGravity), centerCoordinate[0], centerCoordinate[1]);
-        mLabelBackground.draw(canvas);
-        canvas.restore();
+        /**
+         * Set how label text is rendered
+         *
+         * @param labelRenderMode The render mode of label text
+         * @return This editor
+         */
+        public Editor renderMode(RenderMode labelRenderMode) {
+            mStyleBuilder.setRenderMode(labelRenderMode);
+            return this;
+        }
 
-        // Draw text
-        Path bisectorPath = new Path();
-        int[] bisectorCoordinates = calculateBisectorCoordinates(mLabelDistance, mLabelHeight, mLabelGravity);
-        bisectorPath.moveTo(bisectorCoordinates[0], bisectorCoordinates[1]);
-        bisectorPath.lineTo(bisectorCoordinates[2], bisectorCoordinates[3]);
+        /**
+         * Set the maximum number of text lines, only used by {@link RenderMode#LAYOUT}
+         *
+         * @param labelMaxLines The maximum number of text lines
+         * @return This editor
+         */
+        public Editor maxLines(int labelMaxLines) {
+            mStyleBuilder.setMaxLines(labelMaxLines);
+            return this;
+        }
 
-        mTextPaint.setTextSize(mLabelTextSize);
-        mTextPaint.setColor(mLabelTextColor);
-        float[] offsets = calculateTextOffsets(mLabelText, mTextPaint, mLabelDistance, mLabelHeight, mLabelGravity);
-        String displayText;
-        if (mLabelTextDirection == TextDirection.LEFT_TO_RIGHT) {
-            displayText = mLabelText;
-        } else {
-            displayText = new StringBuffer(mLabelText).reverse().toString();
+        /**
+         * Set whether text size is picked to fit the label
+         *
+         * @param labelAutoSize True to enable auto size
+         * @return This editor
+         */
+        public Editor autoSize(boolean labelAutoSize) {
+            mStyleBuilder.setAutoSize(labelAutoSize);
+            return this;
+        }
+
+        /**
+         * Set the range of text sizes picked by auto size
+         *
+         * @param minTextSize The minimum text size
+         * @param maxTextSize The maximum text size
+         * @return This editor
+         */
+        public Editor autoSizeTextSizeRange(int minTextSize, int maxTextSize) {
+            mStyleBuilder.setAutoSizeTextSizeRange(minTextSize, maxTextSize);
+            return this;
+        }
+
+        /**
+         * Apply all changes to label, nothing happens if no property changed
+         */
+        public void apply() {
+            setLabel(0, new LabelSpec(mText, mStyleBuilder.build()));
         }
-        canvas.drawTextOnPath(displayText, bisectorPath, offsets[0], offsets[1], mTextPaint);
     }
 
     public enum Gravity {
         TOP_LEFT, TOP_RIGHT, BOTTOM_RIGHT, BOTTOM_LEFT
     }
 
+    /**
+     * How background drawable with an intrinsic size is scaled in label, keeping its aspect ratio.
+     * Backgrounds without intrinsic size, like colors, always fill the label
+     */
+    public enum BackgroundScaleType {
+        /**
+         * Scaled down to fit in label if it's larger, centered
+         */
+        CENTER_INSIDE,
+
+        /**
+         * Scaled up or down to fit in label, centered
+         */
+        FIT,
+
+        /**
+         * Scaled up or down to fill label, centered and cropped
+         */
+        FILL,
+
+        /**
+         * Not scaled, centered and cropped
+         */
+        CENTER,
+
+        /**
+         * Not scaled, repeated over label from its top left
+         */
+        TILE
+    }
+
+    /**
+     * The order in which label text is laid out. Text of right to left scripts, like Arabic and Hebrew, is
+     * always laid out from right to left.
+     * <p>
+     * The result depends on {@link RenderMode}: PATH draws text of left to right scripts with its characters
+     * reversed for RIGHT_TO_LEFT, e.g. "SALE" as "ELAS", while LAYOUT only uses the direction as paragraph
+     * direction of bidirectional text, and never reverses left to right scripts. LOCALE is only meaningful
+     * for LAYOUT, where the paragraph direction follows the layout direction of the default locale. PATH
+     * has no paragraph direction, so LOCALE draws exactly like LEFT_TO_RIGHT there
+     */
     public enum TextDirection {
-        LEFT_TO_RIGHT, RIGHT_TO_LEFT
+        LEFT_TO_RIGHT, RIGHT_TO_LEFT, LOCALE
+    }
+
+    /**
+     * How label text is rendered. PATH positions each glyph along the bisector line on every draw. LAYOUT
+     * draws a cached, shaped {@link android.text.StaticLayout} with the canvas rotated once, which can
+     * wrap to several lines and is ellipsized to fit the label. LAYOUT follows Unicode bidirectional order,
+     * so unlike PATH, {@link TextDirection#RIGHT_TO_LEFT} doesn't reverse text of left to right scripts
+     *
+     * @see TextLayoutCache
+     */
+    public enum RenderMode {
+        PATH, LAYOUT
+    }
+
+    /**
+     * Where the label is drawn relative to children, the label is drawn exactly once per frame
+     */
+    public enum DrawOrder {
+        UNDER_CHILDREN, OVER_CHILDREN, FOREGROUND
     }
 }
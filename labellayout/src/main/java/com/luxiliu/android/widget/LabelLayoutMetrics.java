@@ -0,0 +1,95 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.luxiliu.android.widget;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * LabelLayoutMetrics reports label render cost to an optional sink. Nothing is measured or
+ * counted while no sink is set
+ */
+public final class LabelLayoutMetrics {
+    private static volatile Sink sSink;
+
+    // Reported from every thread drawing labels, including renderer threads
+    private static final AtomicLong sDrawCount = new AtomicLong();
+
+    private LabelLayoutMetrics() {
+    }
+
+    /**
+     * Set the sink receiving metrics, or null to disable metrics
+     *
+     * @param sink The sink receiving metrics
+     */
+    public static void setSink(Sink sink) {
+        sDrawCount.set(0);
+        sSink = sink;
+    }
+
+    /**
+     * Get the sink receiving metrics
+     *
+     * @return The sink receiving metrics, or null if metrics are disabled
+     */
+    public static Sink getSink() {
+        return sSink;
+    }
+
+    /**
+     * Check whether metrics are enabled
+     *
+     * @return True if a sink is set
+     */
+    public static boolean isEnabled() {
+        return sSink != null;
+    }
+
+    static void reportDraw(long drawNanos) {
+        Sink sink = sSink;
+        if (sink != null) {
+            sink.onLabelDraw(sDrawCount.incrementAndGet(), drawNanos);
+        }
+    }
+
+    static void reportTextMeasure(boolean cacheHit) {
+        Sink sink = sSink;
+        if (sink != null) {
+            sink.onTextMeasure(cacheHit);
+        }
+    }
+
+    /**
+     * Sink receiving label metrics, called on the thread drawing or preparing the label
+     */
+    public interface Sink {
+        /**
+         * Called after a label is drawn
+         *
+         * @param drawCount The number of labels drawn since the sink was set
+         * @param drawNanos The time spent drawing this label, in nanoseconds
+         */
+        void onLabelDraw(long drawCount, long drawNanos);
+
+        /**
+         * Called when label text is measured
+         *
+         * @param cacheHit True if the measurement was served from cache
+         */
+        void onTextMeasure(boolean cacheHit);
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.luxiliu.android.widget;
+
+import android.text.TextUtils;
+
+import java.util.List;
+
+
+/**
+ * LabelPayload is an immutable change of one label, usually returned from
+ * 'DiffUtil.ItemCallback.getChangePayload()' so a label only change is bound without binding the whole
+ * item again. It keeps new values of changed fields only, so payloads can be applied in order
+ *
+ * @see LabelLayout#applyPayload(LabelPayload)
+ */
+public final class LabelPayload {
+    private final int mIndex;
+    private final boolean mTextChanged;
+    private final String mText;
+    private final LabelStyle mStyle;
+
+    private LabelPayload(int index, boolean textChanged, String text, LabelStyle style) {
+        mIndex = index;
+        mTextChanged = textChanged;
+        mText = text;
+        mStyle = style;
+    }
+
+    /**
+     * Calculate the change of the primary label
+     *
+     * @param oldSpec The label bound before
+     * @param newSpec The label to bind
+     * @return The change, or null if labels are the same
+     */
+    public static LabelPayload diff(LabelSpec oldSpec, LabelSpec newSpec) {
+        return diff(0, oldSpec, newSpec);
+    }
+
+    /**
+     * Calculate the change of a label
+     *
+     * @param index   The index of label
+     * @param oldSpec The label bound before
+     * @param newSpec The label to bind
+     * @return The change, or null if labels are the same
+     */
+    public static LabelPayload diff(int index, LabelSpec oldSpec, LabelSpec newSpec) {
+        boolean textChanged = !TextUtils.equals(oldSpec.getText(), newSpec.getText());
+        // Backgrounds sharing a constant state are equal, but a new instance must still be bound
+        boolean styleChanged = !oldSpec.getStyle().equals(newSpec.getStyle())
+                || oldSpec.getStyle().getBackground() != newSpec.getStyle().getBackground();
+        if (!textChanged && !styleChanged) {
+            return null;
+        }
+
+        return new LabelPayload(index, textChanged, newSpec.getText(), styleChanged ? newSpec.getStyle() : null);
+    }
+
+    /**
+     * Find label payloads among the payloads passed to 'onBindViewHolder()'
+     *
+     * @param payloads The payloads of item
+     * @return True if payloads is not empty and all of them are label payloads, so binding them is enough
+     */
+    public static boolean containsOnlyLabelPayloads(List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            return false;
+        }
+
+        for (int i = 0; i < payloads.size(); i++) {
+            if (!(payloads.get(i) instanceof LabelPayload)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Get the index of changed label
+     *
+     * @return The index of label
+     */
+    public int getIndex() {
+        return mIndex;
+    }
+
+    /**
+     * Get whether the text of label changed
+     *
+     * @return True if the text changed
+     */
+    public boolean isTextChanged() {
+        return mTextChanged;
+    }
+
+    /**
+     * Get the new text of label, only if {@link #isTextChanged()}
+     *
+     * @return The new text of label, may be null
+     */
+    public String getText() {
+        return mText;
+    }
+
+    /**
+     * Get the new style of label
+     *
+     * @return The new style of label, or null if style didn't change
+     */
+    public LabelStyle getStyle() {
+        return mStyle;
+    }
+
+    /**
+     * Apply the change to a label
+     *
+     * @param spec The label to change
+     * @return The changed label
+     */
+    public LabelSpec apply(LabelSpec spec) {
+        if (mTextChanged) {
+            spec = spec.withText(mText);
+        }
+        if (mStyle != null) {
+            spec = spec.withStyle(mStyle);
+        }
+
+        return spec;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof LabelPayload)) {
+            return false;
+        }
+
+        LabelPayload payload = (LabelPayload) o;
+        return mIndex == payload.mIndex
+                && mTextChanged == payload.mTextChanged
+                && TextUtils.equals(mText, payload.mText)
+                && (mStyle != null ? mStyle.equals(payload.mStyle) : payload.mStyle == null);
+    }
+
+    @Override
+    public int hashCode() {
+        int hashCode = mIndex;
+        hashCode = 31 * hashCode + (mTextChanged ? 1 : 0);
+        hashCode = 31 * hashCode + (mText != null ? mText.hashCode() : 0);
+        hashCode = 31 * hashCode + (mStyle != null ? mStyle.hashCode() : 0);
+        return hashCode;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.luxiliu.android.widget;
+
+import android.graphics.Canvas;
+import android.graphics.RenderNode;
+import android.os.Build;
+
+import androidx.annotation.RequiresApi;
+
+
+/**
+ * LabelRenderNode keeps labels recorded as a display list, which is replayed until labels change
+ */
+@RequiresApi(Build.VERSION_CODES.Q)
+final class LabelRenderNode {
+    private final RenderNode mRenderNode = new RenderNode("LabelDrawable");
+    private boolean mDirty = true;
+
+    /**
+     * Mark the recording as stale, labels will be recorded again before next draw
+     */
+    void invalidate() {
+        mDirty = true;
+    }
+
+    /**
+     * Check whether labels need to be recorded again
+     *
+     * @return True if the recording is stale or was discarded
+     */
+    boolean needsRecording() {
+        return mDirty || !mRenderNode.hasDisplayList();
+    }
+
+    /**
+     * Start recording labels
+     *
+     * @param width  The width of recording
+     * @param height The height of recording
+     * @return The canvas to draw labels on
+     */
+    Canvas beginRecording(int width, int height) {
+        mRenderNode.setPosition(0, 0, width, height);
+        return mRenderNode.beginRecording(width, height);
+    }
+
+    /**
+     * Finish recording labels
+     */
+    void endRecording() {
+        mRenderNode.endRecording();
+        mDirty = false;
+    }
+
+    /**
+     * Replay the recording
+     *
+     * @param canvas The hardware accelerated canvas to draw on
+     */
+    void draw(Canvas canvas) {
+        canvas.drawRenderNode(mRenderNode);
+    }
+
+    /**
+     * Release the recording
+     */
+    void discard() {
+        mRenderNode.discardDisplayList();
+    }
+}
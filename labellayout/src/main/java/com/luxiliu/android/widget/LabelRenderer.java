@@ -0,0 +1,233 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.luxiliu.android.widget;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.drawable.Drawable;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+
+/**
+ * LabelRenderer draws labels onto any canvas or bitmap without a view, e.g. to stamp labels onto
+ * thumbnails or notification icons. It can be used on any number of threads at the same time, each
+ * thread keeping its own pool of calculated labels and background copies
+ */
+public final class LabelRenderer {
+    // The number of labels pooled per thread
+    private static final int POOL_SIZE = 16;
+
+    private static final Handler sMainHandler = new Handler(Looper.getMainLooper());
+
+    private static final ThreadLocal<Pool> sPool = new ThreadLocal<Pool>() {
+        @Override
+        protected Pool initialValue() {
+            return new Pool();
+        }
+    };
+
+    private volatile boolean mCacheEnabled = true;
+
+    /**
+     * Get whether labels are drawn from the shared pre-rendered labels
+     *
+     * @return True if labels are drawn from the shared pre-rendered labels
+     */
+    public boolean isCacheEnabled() {
+        return mCacheEnabled;
+    }
+
+    /**
+     * Set whether labels are drawn from the shared pre-rendered labels, which is faster when the same
+     * labels are drawn onto many bitmaps. The default value is true
+     *
+     * @param cacheEnabled True to draw from the shared pre-rendered labels
+     */
+    public void setCacheEnabled(boolean cacheEnabled) {
+        mCacheEnabled = cacheEnabled;
+    }
+
+    /**
+     * Draw labels at the corners of an area starting at the origin of canvas
+     *
+     * @param canvas The canvas to draw on
+     * @param width  The width of area
+     * @param height The height of area
+     * @param specs  The labels to draw, in drawing order
+     */
+    public void draw(Canvas canvas, int width, int height, List<LabelSpec> specs) {
+        final Pool pool = sPool.get();
+        final boolean cacheEnabled = mCacheEnabled;
+        for (int i = 0; i < specs.size(); i++) {
+            pool.obtain(specs.get(i)).draw(canvas, width, height, cacheEnabled);
+        }
+    }
+
+    /**
+     * Draw labels at the corners of bitmap
+     *
+     * @param bitmap The mutable bitmap to draw on
+     * @param specs  The labels to draw, in drawing order
+     */
+    public void draw(Bitmap bitmap, List<LabelSpec> specs) {
+        checkMutable(bitmap);
+
+        final Canvas canvas = sPool.get().mCanvas;
+        canvas.setBitmap(bitmap);
+        draw(canvas, bitmap.getWidth(), bitmap.getHeight(), specs);
+        canvas.setBitmap(null);
+    }
+
+    /**
+     * Draw the same labels at the corners of every bitmap, in parallel on executor
+     *
+     * @param bitmaps  The mutable bitmaps to draw on
+     * @param specs    The labels to draw, in drawing order
+     * @param executor The executor drawing labels, usually a background one with a thread per core
+     * @param callback The callback called on main thread when all bitmaps are drawn or drawing failed, may
+     *                 be null. Without a callback, failures are thrown on executor
+     */
+    public void drawAsync(List<Bitmap> bitmaps, List<LabelSpec> specs, Executor executor, final Callback callback) {
+        // Fail before anything is drawn, errors on executor threads would never reach the caller
+        for (int i = 0; i < bitmaps.size(); i++) {
+            checkMutable(bitmaps.get(i));
+        }
+
+        final List<Bitmap> drawBitmaps = new ArrayList<>(bitmaps);
+        final List<LabelSpec> drawSpecs = new ArrayList<>(specs);
+        if (drawBitmaps.isEmpty()) {
+            deliver(drawBitmaps, null, callback);
+            return;
+        }
+
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final AtomicInteger remaining = new AtomicInteger(drawBitmaps.size());
+        for (int i = 0; i < drawBitmaps.size(); i++) {
+            final Bitmap bitmap = drawBitmaps.get(i);
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        draw(bitmap, drawSpecs);
+                    } catch (RuntimeException | Error e) {
+                        // Only the first failure is reported, the others are usually the same
+                        failure.compareAndSet(null, e);
+                        if (callback == null) {
+                            throw e;
+                        }
+                    } finally {
+                        if (remaining.decrementAndGet() == 0) {
+                            deliver(drawBitmaps, failure.get(), callback);
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    private static void checkMutable(Bitmap bitmap) {
+        if (!bitmap.isMutable()) {
+            throw new IllegalArgumentException("bitmap must be mutable");
+        }
+    }
+
+    // Post the drawn bitmaps, or the failure, to callback on main thread
+    private static void deliver(final List<Bitmap> bitmaps, final Throwable failure, final Callback callback) {
+        if (callback == null) {
+            return;
+        }
+
+        sMainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (failure != null) {
+                    callback.onLabelsFailed(bitmaps, failure);
+                } else {
+                    callback.onLabelsDrawn(bitmaps);
+                }
+            }
+        });
+    }
+
+    /**
+     * Callback receiving bitmaps with labels drawn, or the failure drawing them
+     */
+    public interface Callback {
+        /**
+         * Called on main thread when labels are drawn onto all bitmaps
+         *
+         * @param bitmaps The bitmaps with labels drawn
+         */
+        void onLabelsDrawn(List<Bitmap> bitmaps);
+
+        /**
+         * Called on main thread when drawing labels failed on any bitmap, after all bitmaps are done. Labels
+         * may be missing from some of the bitmaps
+         *
+         * @param bitmaps The bitmaps labels were drawn on
+         * @param error   The first error thrown while drawing
+         */
+        void onLabelsFailed(List<Bitmap> bitmaps, Throwable error);
+    }
+
+    // Labels calculated on one thread, with their own paths, paints and background copies
+    private static final class Pool {
+        private final Canvas mCanvas = new Canvas();
+        private final LruCache<LabelSpec, Stamp> mStamps = new LruCache<>(POOL_SIZE);
+
+        Stamp obtain(LabelSpec spec) {
+            Stamp stamp = mStamps.get(spec);
+            if (stamp == null) {
+                stamp = new Stamp(spec);
+                mStamps.put(spec, stamp);
+            }
+
+            return stamp;
+        }
+    }
+
+    private static final class Stamp {
+        private final Label mLabel;
+
+        // Drawables keep their bounds, so the shared background can't be drawn on several threads
+        private final Drawable mBackground;
+
+        Stamp(LabelSpec spec) {
+            // Layouts draw through a work paint of their own, so the shared paint and layout can't be drawn
+            // on several threads
+            mLabel = new Label(spec);
+            mLabel.prepareOwnText();
+
+            Drawable background = spec.getStyle().getBackground();
+            if (background != null && background.getConstantState() != null) {
+                background = background.getConstantState().newDrawable();
+            }
+            mBackground = background;
+        }
+
+        void draw(Canvas canvas, int width, int height, boolean cacheEnabled) {
+            mLabel.draw(canvas, width, height, cacheEnabled, mBackground);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.luxiliu.android.widget;
+
+import android.graphics.Color;
+
+
+/**
+ * LabelRibbon is an immutable description of a built-in ribbon drawn under label background: a linear
+ * gradient along the label, an optional drop shadow and optional folded edges at the border of layout.
+ * Its shader, paths and shadow are built once for every label size and shared by all labels with the
+ * same ribbon, so it costs no more per frame than a color background
+ */
+public final class LabelRibbon {
+    private final int mStartColor;
+    private final int mEndColor;
+    private final int mShadowColor;
+    private final int mShadowRadius;
+    private final int mFoldColor;
+    private final int mFoldSize;
+
+    private LabelRibbon(Builder builder) {
+        mStartColor = builder.mStartColor;
+        mEndColor = builder.mEndColor;
+        mShadowColor = builder.mShadowColor;
+        mShadowRadius = builder.mShadowRadius;
+        mFoldColor = builder.mFoldColor;
+        mFoldSize = builder.mFoldSize;
+    }
+
+    /**
+     * Get the color at the start of ribbon
+     *
+     * @return The color at the start of ribbon
+     */
+    public int getStartColor() {
+        return mStartColor;
+    }
+
+    /**
+     * Get the color at the end of ribbon
+     *
+     * @return The color at the end of ribbon
+     */
+    public int getEndColor() {
+        return mEndColor;
+    }
+
+    /**
+     * Get the color of shadow
+     *
+     * @return The color of shadow
+     */
+    public int getShadowColor() {
+        return mShadowColor;
+    }
+
+    /**
+     * Get the blur radius of shadow
+     *
+     * @return The blur radius of shadow, 0 if there is no shadow
+     */
+    public int getShadowRadius() {
+        return mShadowRadius;
+    }
+
+    /**
+     * Get the color of folded edges
+     *
+     * @return The color of folded edges
+     */
+    public int getFoldColor() {
+        return mFoldColor;
+    }
+
+    /**
+     * Get the size of folded edges
+     *
+     * @return The size of folded edges, 0 if edges are not folded
+     */
+    public int getFoldSize() {
+        return mFoldSize;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof LabelRibbon)) {
+            return false;
+        }
+
+        LabelRibbon ribbon = (LabelRibbon) o;
+        return mStartColor == ribbon.mStartColor
+                && mEndColor == ribbon.mEndColor
+                && mShadowColor == ribbon.mShadowColor
+                && mShadowRadius == ribbon.mShadowRadius
+                && mFoldColor == ribbon.mFoldColor
+                && mFoldSize == ribbon.mFoldSize;
+    }
+
+    @Override
+    public int hashCode() {
+        int hashCode = mStartColor;
+        hashCode = 31 * hashCode + mEndColor;
+        hashCode = 31 * hashCode + mShadowColor;
+        hashCode = 31 * hashCode + mShadowRadius;
+        hashCode = 31 * hashCode + mFoldColor;
+        hashCode = 31 * hashCode + mFoldSize;
+        return hashCode;
+    }
+
+    /**
+     * Builder of LabelRibbon
+     */
+    public static final class Builder {
+        private static final int DEFAULT_SHADOW_COLOR = 0x40000000;
+        private static final int DEFAULT_FOLD_COLOR = 0x80000000;
+
+        private int mStartColor = Color.RED;
+        private int mEndColor = Color.RED;
+        private int mShadowColor = DEFAULT_SHADOW_COLOR;
+        private int mShadowRadius;
+        private int mFoldColor = DEFAULT_FOLD_COLOR;
+        private int mFoldSize;
+
+        /**
+         * Create a builder with default values
+         */
+        public Builder() {
+        }
+
+        /**
+         * Create a builder with values of an existing ribbon
+         *
+         * @param ribbon The ribbon to copy from
+         */
+        public Builder(LabelRibbon ribbon) {
+            mStartColor = ribbon.mStartColor;
+            mEndColor = ribbon.mEndColor;
+            mShadowColor = ribbon.mShadowColor;
+            mShadowRadius = ribbon.mShadowRadius;
+            mFoldColor = ribbon.mFoldColor;
+            mFoldSize = ribbon.mFoldSize;
+        }
+
+        /**
+         * Set a solid color of ribbon
+         *
+         * @param color The color of ribbon
+         * @return This builder
+         */
+        public Builder setColor(int color) {
+            return setColors(color, color);
+        }
+
+        /**
+         * Set the colors of linear gradient along ribbon
+         *
+         * @param startColor The color at the start of ribbon
+         * @param endColor   The color at the end of ribbon
+         * @return This builder
+         */
+        public Builder setColors(int startColor, int endColor) {
+            mStartColor = startColor;
+            mEndColor = endColor;
+            return this;
+        }
+
+        /**
+         * Set drop shadow of ribbon
+         *
+         * @param color  The color of shadow
+         * @param radius The blur radius of shadow, 0 for no shadow
+         * @return This builder
+         */
+        public Builder setShadow(int color, int radius) {
+            mShadowColor = color;
+            mShadowRadius = Math.max(radius, 0);
+            return this;
+        }
+
+        /**
+         * Set folded edges of ribbon, triangles at the border of layout as if ribbon wraps around it
+         *
+         * @param color The color of folded edges
+         * @param size  The size of folded edges, 0 for no folded edges
+         * @return This builder
+         */
+        public Builder setFold(int color, int size) {
+            mFoldColor = color;
+            mFoldSize = Math.max(size, 0);
+            return this;
+        }
+
+        /**
+         * Create the ribbon
+         *
+         * @return The ribbon
+         */
+        public LabelRibbon build() {
+            return new LabelRibbon(this);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.luxiliu.android.widget;
+
+import java.util.concurrent.Executor;
+
+/**
+ * LabelSpec is an immutable label: its text and the style it's drawn with
+ */
+public final class LabelSpec {
+    private final String mText;
+    private final LabelStyle mStyle;
+
+    /**
+     * Create a label
+     *
+     * @param text  The text of label, may be null
+     * @param style The style of label
+     */
+    public LabelSpec(String text, LabelStyle style) {
+        if (style == null) {
+            throw new IllegalArgumentException("style must not be null");
+        }
+
+        mText = text;
+        mStyle = style;
+    }
+
+    /**
+     * Get the text of label
+     *
+     * @return The text of label
+     */
+    public String getText() {
+        return mText;
+    }
+
+    /**
+     * Get the style of label
+     *
+     * @return The style of label
+     */
+    public LabelStyle getStyle() {
+        return mStyle;
+    }
+
+    /**
+     * Create a label with the same style and another text
+     *
+     * @param text The text of label
+     * @return The label with new text
+     */
+    public LabelSpec withText(String text) {
+        return new LabelSpec(text, mStyle);
+    }
+
+    /**
+     * Create a label with the same text and another style
+     *
+     * @param style The style of label
+     * @return The label with new style
+     */
+    public LabelSpec withStyle(LabelStyle style) {
+        return new LabelSpec(mText, style);
+    }
+
+    /**
+     * Measure text, calculate geometry and optionally render the shared pre-rendered label on the calling
+     * thread, usually a background one. Shared caches are filled too, so LabelItemDecoration benefits
+     *
+     * @param preRender True to render the label for {@link LabelLayout#setLabelCacheEnabled(boolean)}
+     * @return The prepared label, to be set with {@link LabelLayout#setLabel(int, PreparedLabel)}
+     */
+    public PreparedLabel prepare(boolean preRender) {
+        Label label = new Label(this);
+        label.prepare(preRender);
+        return new PreparedLabel(label);
+    }
+
+    /**
+     * Prepare the label on executor, see {@link #prepare(boolean)}
+     *
+     * @param executor  The executor preparing label, usually a background one
+     * @param preRender True to render the label for {@link LabelLayout#setLabelCacheEnabled(boolean)}
+     * @param callback  The callback receiving the prepared label on main thread
+     */
+    public void prepareAsync(Executor executor, final boolean preRender, final PreparedLabel.Callback callback) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                PreparedLabel.deliver(prepare(preRender), callback);
+            }
+        });
+    }
+
+    /**
+     * Check whether another label is the same, down to the background instance. Labels with backgrounds
+     * sharing a constant state are equal, which is what the shared bitmap cache needs, but setting such a
+     * label must still replace the background
+     *
+     * @param spec The other label
+     * @return True if setting the other label changes nothing
+     */
+    boolean isIdentical(LabelSpec spec) {
+        return equals(spec) && mStyle.getBackground() == spec.mStyle.getBackground();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof LabelSpec)) {
+            return false;
+        }
+
+        LabelSpec spec = (LabelSpec) o;
+        return mStyle.equals(spec.mStyle)
+                && (mText != null ? mText.equals(spec.mText) : spec.mText == null);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (mText != null ? mText.hashCode() : 0) + mStyle.hashCode();
+    }
+}
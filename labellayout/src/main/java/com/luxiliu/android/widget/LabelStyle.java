@@ -0,0 +1,598 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.luxiliu.android.widget;
+
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.graphics.drawable.ColorDrawable;
+import android.graphics.drawable.Drawable;
+import android.util.LruCache;
+
+
+/**
+ * LabelStyle is an immutable description of how a label looks, it can be shared by many LabelLayouts
+ */
+public final class LabelStyle {
+    private static final int TEXT_PAINT_POOL_SIZE = 32;
+
+    private static final LruCache<TextPaintKey, Paint> sTextPaintPool = new LruCache<>(TEXT_PAINT_POOL_SIZE);
+    private static int sDefaultTextSize = -1;
+
+    private final int mDistance;
+    private final int mHeight;
+    private final Drawable mBackground;
+    private final LabelRibbon mRibbon;
+    private final LabelLayout.BackgroundScaleType mBackgroundScaleType;
+    private final LabelLayout.Gravity mGravity;
+    private final int mTextSize;
+    private final int mTextColor;
+    private final Typeface mTypeface;
+    private final LabelLayout.TextDirection mTextDirection;
+    private final LabelLayout.RenderMode mRenderMode;
+    private final int mMaxLines;
+    private final boolean mAutoSize;
+    private final int mAutoSizeMinTextSize;
+    private final int mAutoSizeMaxTextSize;
+
+    private final Object mBackgroundIdentity;
+    private final int mHashCode;
+
+    private Paint mTextPaint;
+
+    private LabelStyle(Builder builder) {
+        mDistance = builder.mDistance;
+        mHeight = builder.mHeight;
+        mBackground = builder.mBackground;
+        mRibbon = builder.mRibbon;
+        mBackgroundScaleType = builder.mBackgroundScaleType;
+        mGravity = builder.mGravity;
+        mTextSize = builder.mTextSize;
+        mTextColor = builder.mTextColor;
+        mTypeface = builder.mTypeface;
+        mTextDirection = builder.mTextDirection;
+        mRenderMode = builder.mRenderMode;
+        mMaxLines = builder.mMaxLines;
+        mAutoSize = builder.mAutoSize;
+        mAutoSizeMinTextSize = builder.mAutoSizeMinTextSize;
+        mAutoSizeMaxTextSize = builder.mAutoSizeMaxTextSize;
+
+        mBackgroundIdentity = backgroundIdentity(mBackground);
+
+        int hashCode = mDistance;
+        hashCode = 31 * hashCode + mHeight;
+        hashCode = 31 * hashCode + (mBackgroundIdentity != null ? mBackgroundIdentity.hashCode() : 0);
+        hashCode = 31 * hashCode + (mRibbon != null ? mRibbon.hashCode() : 0);
+        hashCode = 31 * hashCode + mBackgroundScaleType.hashCode();
+        hashCode = 31 * hashCode + mGravity.hashCode();
+        hashCode = 31 * hashCode + mTextSize;
+        hashCode = 31 * hashCode + mTextColor;
+        hashCode = 31 * hashCode + (mTypeface != null ? mTypeface.hashCode() : 0);
+        hashCode = 31 * hashCode + mTextDirection.hashCode();
+        hashCode = 31 * hashCode + mRenderMode.hashCode();
+        hashCode = 31 * hashCode + mMaxLines;
+        hashCode = 31 * hashCode + (mAutoSize ? 1 : 0);
+        hashCode = 31 * hashCode + mAutoSizeMinTextSize;
+        hashCode = 31 * hashCode + mAutoSizeMaxTextSize;
+        mHashCode = hashCode;
+    }
+
+    /**
+     * Get the default text size of label, which is the default text size of {@link Paint}
+     *
+     * @return The default text size of label
+     */
+    public static int getDefaultTextSize() {
+        if (sDefaultTextSize < 0) {
+            sDefaultTextSize = (int) new Paint().getTextSize();
+        }
+
+        return sDefaultTextSize;
+    }
+
+    // Two backgrounds are identical if they draw the same color or share the same constant state
+    private static Object backgroundIdentity(Drawable background) {
+        if (background == null) {
+            return null;
+        } else if (background instanceof ColorDrawable) {
+            return ((ColorDrawable) background).getColor();
+        } else if (background.getConstantState() != null) {
+            return background.getConstantState();
+        } else {
+            return background;
+        }
+    }
+
+    /**
+     * Get the ribbon drawn under label background
+     *
+     * @return The ribbon of label, or null if there is none
+     */
+    public LabelRibbon getRibbon() {
+        return mRibbon;
+    }
+
+    /**
+     * Get the distance from vertex to label's edge
+     *
+     * @return The distance from vertex to label's edge
+     */
+    public int getDistance() {
+        return mDistance;
+    }
+
+    /**
+     * Get the height of label
+     *
+     * @return The height of label
+     */
+    public int getHeight() {
+        return mHeight;
+    }
+
+    /**
+     * Get the background of label
+     *
+     * @return The background of label
+     */
+    public Drawable getBackground() {
+        return mBackground;
+    }
+
+    /**
+     * Get how background is scaled in label
+     *
+     * @return The scale type of background
+     */
+    public LabelLayout.BackgroundScaleType getBackgroundScaleType() {
+        return mBackgroundScaleType;
+    }
+
+    /**
+     * Get the gravity of label
+     *
+     * @return The gravity of label
+     */
+    public LabelLayout.Gravity getGravity() {
+        return mGravity;
+    }
+
+    /**
+     * Get the text size of label
+     *
+     * @return The text size of label
+     */
+    public int getTextSize() {
+        return mTextSize;
+    }
+
+    /**
+     * Get the text color of label
+     *
+     * @return The text color of label
+     */
+    public int getTextColor() {
+        return mTextColor;
+    }
+
+    /**
+     * Get the typeface of label text
+     *
+     * @return The typeface of label text, null for the default typeface
+     */
+    public Typeface getTypeface() {
+        return mTypeface;
+    }
+
+    /**
+     * Get text direction
+     *
+     * @return The text direction
+     */
+    public LabelLayout.TextDirection getTextDirection() {
+        return mTextDirection;
+    }
+
+    /**
+     * Get how label text is rendered
+     *
+     * @return The render mode of label text
+     */
+    public LabelLayout.RenderMode getRenderMode() {
+        return mRenderMode;
+    }
+
+    /**
+     * Get the maximum number of text lines, only used by {@link LabelLayout.RenderMode#LAYOUT}
+     *
+     * @return The maximum number of text lines
+     */
+    public int getMaxLines() {
+        return mMaxLines;
+    }
+
+    /**
+     * Check whether text size is picked to fit the label, instead of using {@link #getTextSize()}
+     *
+     * @return True if auto size is enabled
+     */
+    public boolean isAutoSize() {
+        return mAutoSize;
+    }
+
+    /**
+     * Get the minimum text size picked by auto size
+     *
+     * @return The minimum text size
+     */
+    public int getAutoSizeMinTextSize() {
+        return mAutoSizeMinTextSize;
+    }
+
+    /**
+     * Get the maximum text size picked by auto size
+     *
+     * @return The maximum text size
+     */
+    public int getAutoSizeMaxTextSize() {
+        return mAutoSizeMaxTextSize;
+    }
+
+    /**
+     * Get the paint drawing label text, shared by all styles with the same text size, color and typeface.
+     * It must not be modified
+     *
+     * @return The paint drawing label text
+     */
+    Paint getTextPaint() {
+        if (mTextPaint == null) {
+            TextPaintKey key = new TextPaintKey(mTextSize, mTextColor, mTypeface);
+            Paint paint = sTextPaintPool.get(key);
+            if (paint == null) {
+                paint = new Paint();
+                paint.setDither(true);
+                paint.setAntiAlias(true);
+                paint.setStrokeJoin(Paint.Join.ROUND);
+                paint.setStrokeCap(Paint.Cap.SQUARE);
+                paint.setTextSize(mTextSize);
+                paint.setColor(mTextColor);
+                paint.setTypeface(mTypeface);
+                sTextPaintPool.put(key, paint);
+            }
+
+            mTextPaint = paint;
+        }
+
+        return mTextPaint;
+    }
+
+    /**
+     * Check whether label geometry is the same between this style and another one
+     *
+     * @param style The other style
+     * @return True if label doesn't need to be measured and positioned again
+     */
+    boolean hasSameGeometry(LabelStyle style) {
+        return mDistance == style.mDistance
+                && mHeight == style.mHeight
+                && mBackground == style.mBackground
+                && equalsOrNull(mRibbon, style.mRibbon)
+                && mBackgroundScaleType == style.mBackgroundScaleType
+                && mGravity == style.mGravity
+                && mTextSize == style.mTextSize
+                && equalsOrNull(mTypeface, style.mTypeface)
+                // Geometry keeps the text paint of its color
+                && mTextColor == style.mTextColor
+                && mRenderMode == style.mRenderMode
+                && (mRenderMode == LabelLayout.RenderMode.PATH || hasSameTextLayout(style))
+                && mAutoSize == style.mAutoSize
+                && mAutoSizeMinTextSize == style.mAutoSizeMinTextSize
+                && mAutoSizeMaxTextSize == style.mAutoSizeMaxTextSize;
+    }
+
+    // Text layout keeps its own line count and direction
+    private boolean hasSameTextLayout(LabelStyle style) {
+        return mMaxLines == style.mMaxLines
+                && mTextDirection == style.mTextDirection;
+    }
+
+    private static boolean equalsOrNull(Object a, Object b) {
+        return a != null ? a.equals(b) : b == null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof LabelStyle)) {
+            return false;
+        }
+
+        LabelStyle style = (LabelStyle) o;
+        return mHashCode == style.mHashCode
+                && mDistance == style.mDistance
+                && mHeight == style.mHeight
+                && mBackgroundScaleType == style.mBackgroundScaleType
+                && mGravity == style.mGravity
+                && mTextSize == style.mTextSize
+                && mTextColor == style.mTextColor
+                && mTextDirection == style.mTextDirection
+                && mRenderMode == style.mRenderMode
+                && mMaxLines == style.mMaxLines
+                && mAutoSize == style.mAutoSize
+                && mAutoSizeMinTextSize == style.mAutoSizeMinTextSize
+                && mAutoSizeMaxTextSize == style.mAutoSizeMaxTextSize
+                && equalsOrNull(mTypeface, style.mTypeface)
+                && equalsOrNull(mBackgroundIdentity, style.mBackgroundIdentity)
+                && equalsOrNull(mRibbon, style.mRibbon);
+    }
+
+    @Override
+    public int hashCode() {
+        return mHashCode;
+    }
+
+    /**
+     * Builder of LabelStyle
+     */
+    public static final class Builder {
+        private int mDistance;
+        private int mHeight;
+        private Drawable mBackground;
+        private LabelRibbon mRibbon;
+        private LabelLayout.BackgroundScaleType mBackgroundScaleType = LabelLayout.BackgroundScaleType.CENTER_INSIDE;
+        private LabelLayout.Gravity mGravity = LabelLayout.Gravity.TOP_LEFT;
+        private int mTextSize = getDefaultTextSize();
+        private int mTextColor = Color.BLACK;
+        private Typeface mTypeface;
+        private LabelLayout.TextDirection mTextDirection = LabelLayout.TextDirection.LEFT_TO_RIGHT;
+        private LabelLayout.RenderMode mRenderMode = LabelLayout.RenderMode.PATH;
+        private int mMaxLines = 1;
+        private boolean mAutoSize;
+        private int mAutoSizeMinTextSize = 1;
+        private int mAutoSizeMaxTextSize = Integer.MAX_VALUE;
+
+        /**
+         * Create a builder with default values
+         */
+        public Builder() {
+        }
+
+        /**
+         * Create a builder with values of an existing style
+         *
+         * @param style The style to copy from
+         */
+        public Builder(LabelStyle style) {
+            mDistance = style.mDistance;
+            mHeight = style.mHeight;
+            mBackground = style.mBackground;
+            mRibbon = style.mRibbon;
+            mBackgroundScaleType = style.mBackgroundScaleType;
+            mGravity = style.mGravity;
+            mTextSize = style.mTextSize;
+            mTextColor = style.mTextColor;
+            mTypeface = style.mTypeface;
+            mTextDirection = style.mTextDirection;
+            mRenderMode = style.mRenderMode;
+            mMaxLines = style.mMaxLines;
+            mAutoSize = style.mAutoSize;
+            mAutoSizeMinTextSize = style.mAutoSizeMinTextSize;
+            mAutoSizeMaxTextSize = style.mAutoSizeMaxTextSize;
+        }
+
+        /**
+         * Set the distance from vertex to label's edge
+         *
+         * @param distance The distance from vertex to label's edge
+         * @return This builder
+         */
+        public Builder setDistance(int distance) {
+            mDistance = distance;
+            return this;
+        }
+
+        /**
+         * Set the height of label
+         *
+         * @param height The height of label
+         * @return This builder
+         */
+        public Builder setHeight(int height) {
+            mHeight = height;
+            return this;
+        }
+
+        /**
+         * Set the background of label
+         *
+         * @param background The background of label
+         * @return This builder
+         */
+        public Builder setBackground(Drawable background) {
+            mBackground = background;
+            return this;
+        }
+
+        /**
+         * Set the built-in ribbon drawn under label background, usually with no background
+         *
+         * @param ribbon The ribbon of label, or null for no ribbon
+         * @return This builder
+         */
+        public Builder setRibbon(LabelRibbon ribbon) {
+            mRibbon = ribbon;
+            return this;
+        }
+
+        /**
+         * Set how background is scaled in label
+         *
+         * @param backgroundScaleType The scale type of background
+         * @return This builder
+         */
+        public Builder setBackgroundScaleType(LabelLayout.BackgroundScaleType backgroundScaleType) {
+            mBackgroundScaleType = backgroundScaleType;
+            return this;
+        }
+
+        /**
+         * Set the gravity of label
+         *
+         * @param gravity The gravity of label
+         * @return This builder
+         */
+        public Builder setGravity(LabelLayout.Gravity gravity) {
+            mGravity = gravity;
+            return this;
+        }
+
+        /**
+         * Set the text size of label
+         *
+         * @param textSize The text size of label
+         * @return This builder
+         */
+        public Builder setTextSize(int textSize) {
+            mTextSize = textSize;
+            return this;
+        }
+
+        /**
+         * Set the text color of label
+         *
+         * @param textColor The text color of label
+         * @return This builder
+         */
+        public Builder setTextColor(int textColor) {
+            mTextColor = textColor;
+            return this;
+        }
+
+        /**
+         * Set the typeface of label text
+         *
+         * @param typeface The typeface of label text, null for the default typeface
+         * @return This builder
+         */
+        public Builder setTypeface(Typeface typeface) {
+            mTypeface = typeface;
+            return this;
+        }
+
+        /**
+         * Set text direction
+         *
+         * @param textDirection The text direction
+         * @return This builder
+         */
+        public Builder setTextDirection(LabelLayout.TextDirection textDirection) {
+            mTextDirection = textDirection;
+            return this;
+        }
+
+        /**
+         * Set how label text is rendered
+         *
+         * @param renderMode The render mode of label text
+         * @return This builder
+         */
+        public Builder setRenderMode(LabelLayout.RenderMode renderMode) {
+            mRenderMode = renderMode;
+            return this;
+        }
+
+        /**
+         * Set the maximum number of text lines, only used by {@link LabelLayout.RenderMode#LAYOUT}
+         *
+         * @param maxLines The maximum number of text lines
+         * @return This builder
+         */
+        public Builder setMaxLines(int maxLines) {
+            mMaxLines = maxLines;
+            return this;
+        }
+
+        /**
+         * Set whether text size is picked to fit the label, instead of using {@link #setTextSize(int)}
+         *
+         * @param autoSize True to enable auto size
+         * @return This builder
+         */
+        public Builder setAutoSize(boolean autoSize) {
+            mAutoSize = autoSize;
+            return this;
+        }
+
+        /**
+         * Set the range of text sizes picked by auto size, unbounded by default
+         *
+         * @param minTextSize The minimum text size
+         * @param maxTextSize The maximum text size
+         * @return This builder
+         */
+        public Builder setAutoSizeTextSizeRange(int minTextSize, int maxTextSize) {
+            mAutoSizeMinTextSize = minTextSize;
+            mAutoSizeMaxTextSize = maxTextSize;
+            return this;
+        }
+
+        /**
+         * Create the style
+         *
+         * @return The style
+         */
+        public LabelStyle build() {
+            return new LabelStyle(this);
+        }
+    }
+
+    private static final class TextPaintKey {
+        private final int mTextSize;
+        private final int mTextColor;
+        private final Typeface mTypeface;
+
+        TextPaintKey(int textSize, int textColor, Typeface typeface) {
+            mTextSize = textSize;
+            mTextColor = textColor;
+            mTypeface = typeface;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TextPaintKey)) {
+                return false;
+            }
+
+            TextPaintKey key = (TextPaintKey) o;
+            return mTextSize == key.mTextSize
+                    && mTextColor == key.mTextColor
+                    && equalsOrNull(mTypeface, key.mTypeface);
+        }
+
+        @Override
+        public int hashCode() {
+            int hashCode = mTextSize;
+            hashCode = 31 * hashCode + mTextColor;
+            hashCode = 31 * hashCode + (mTypeface != null ? mTypeface.hashCode() : 0);
+            return hashCode;
+        }
+    }
+}
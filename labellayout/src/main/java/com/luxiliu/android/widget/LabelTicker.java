@@ -0,0 +1,115 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.luxiliu.android.widget;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.ArrayList;
+
+
+/**
+ * LabelTicker drives all live labels with a single tick on every second of wall clock, it must only
+ * be used on main thread
+ */
+final class LabelTicker {
+    private static final long TICK_MILLIS = 1000;
+
+    private static LabelTicker sInstance;
+
+    private final ArrayList<Callback> mCallbacks = new ArrayList<>();
+    private boolean mScheduled;
+
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final Runnable mTick = new Runnable() {
+        @Override
+        public void run() {
+            doTick(System.currentTimeMillis());
+        }
+    };
+
+    private LabelTicker() {
+    }
+
+    static LabelTicker getInstance() {
+        if (sInstance == null) {
+            sInstance = new LabelTicker();
+        }
+
+        return sInstance;
+    }
+
+    /**
+     * Start calling back on every tick, until callback returns false or is removed
+     *
+     * @param callback The callback to add
+     */
+    void add(Callback callback) {
+        if (!mCallbacks.contains(callback)) {
+            mCallbacks.add(callback);
+        }
+        schedule();
+    }
+
+    /**
+     * Stop calling back
+     *
+     * @param callback The callback to remove
+     */
+    void remove(Callback callback) {
+        mCallbacks.remove(callback);
+        if (mCallbacks.isEmpty() && mScheduled) {
+            mHandler.removeCallbacks(mTick);
+            mScheduled = false;
+        }
+    }
+
+    private void schedule() {
+        if (mScheduled || mCallbacks.isEmpty()) {
+            return;
+        }
+
+        // Tick right after the next second of wall clock, so all labels change together with it
+        mScheduled = true;
+        mHandler.postDelayed(mTick, TICK_MILLIS - System.currentTimeMillis() % TICK_MILLIS);
+    }
+
+    private void doTick(long currentTimeMillis) {
+        mScheduled = false;
+
+        // Backwards, so callbacks can be removed on the way
+        for (int i = mCallbacks.size() - 1; i >= 0; i--) {
+            if (i < mCallbacks.size() && !mCallbacks.get(i).onTick(currentTimeMillis)) {
+                mCallbacks.remove(i);
+            }
+        }
+
+        schedule();
+    }
+
+    /**
+     * Callback called on every tick
+     */
+    interface Callback {
+        /**
+         * Called on every tick
+         *
+         * @param currentTimeMillis The time of tick, in {@link System#currentTimeMillis()} base
+         * @return True to be called back on next tick
+         */
+        boolean onTick(long currentTimeMillis);
+    }
+}
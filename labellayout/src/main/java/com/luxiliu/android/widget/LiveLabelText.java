@@ -0,0 +1,87 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.luxiliu.android.widget;
+
+
+/**
+ * LiveLabelText formats label text which changes over time, e.g. a countdown. All live labels are
+ * updated by a single shared ticker once every second, only while they are attached and visible. Text
+ * is formatted into a reused buffer, so no string is allocated per tick, and it's only measured again
+ * when its length changes, assuming digits have the same width
+ *
+ * @see LabelLayout#setLabelLiveText(LiveLabelText)
+ */
+public abstract class LiveLabelText {
+    /**
+     * The size of buffer text is formatted into
+     */
+    public static final int MAX_LENGTH = 32;
+
+    /**
+     * Format text into buffer, it's called on main thread once every second
+     *
+     * @param currentTimeMillis The current time, in {@link System#currentTimeMillis()} base
+     * @param buffer            The buffer receiving text, of {@link #MAX_LENGTH}
+     * @return The length of text
+     */
+    public abstract int format(long currentTimeMillis, char[] buffer);
+
+    /**
+     * Create a countdown formatted as 'HH:MM:SS', staying at '00:00:00' after end time
+     *
+     * @param endTimeMillis The end time, in {@link System#currentTimeMillis()} base
+     * @return The countdown
+     */
+    public static LiveLabelText countdown(long endTimeMillis) {
+        return new Countdown(endTimeMillis);
+    }
+
+    private static final class Countdown extends LiveLabelText {
+        private final long mEndTimeMillis;
+
+        Countdown(long endTimeMillis) {
+            mEndTimeMillis = endTimeMillis;
+        }
+
+        @Override
+        public int format(long currentTimeMillis, char[] buffer) {
+            // Round up, so countdown shows '00:00:00' only at end time
+            final long seconds = Math.max((mEndTimeMillis - currentTimeMillis + 999) / 1000, 0);
+
+            int length = appendNumber(buffer, 0, seconds / 3600, 2);
+            buffer[length++] = ':';
+            length = appendNumber(buffer, length, seconds / 60 % 60, 2);
+            buffer[length++] = ':';
+            return appendNumber(buffer, length, seconds % 60, 2);
+        }
+
+        // Append a non negative number padded with zeros, returning the length after it
+        private static int appendNumber(char[] buffer, int offset, long value, int minDigits) {
+            int digits = 1;
+            for (long remaining = value / 10; remaining > 0; remaining /= 10) {
+                digits++;
+            }
+            digits = Math.max(digits, minDigits);
+
+            for (int i = offset + digits - 1; i >= offset; i--) {
+                buffer[i] = (char) ('0' + value % 10);
+                value /= 10;
+            }
+
+            return offset + digits;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.luxiliu.android.widget;
+
+import android.os.Handler;
+import android.os.Looper;
+
+
+/**
+ * PreparedLabel is a label whose text, geometry and optionally pre-rendered bitmap are already
+ * calculated, usually on a background thread. It can be set to any number of LabelLayouts
+ *
+ * @see LabelSpec#prepareAsync(java.util.concurrent.Executor, boolean, Callback)
+ */
+public final class PreparedLabel {
+    private static final Handler sMainHandler = new Handler(Looper.getMainLooper());
+
+    // Never drawn itself, only copied into labels of LabelLayouts
+    private final Label mLabel;
+
+    PreparedLabel(Label label) {
+        mLabel = label;
+    }
+
+    /**
+     * Get the label which is prepared
+     *
+     * @return The label which is prepared
+     */
+    public LabelSpec getSpec() {
+        return mLabel.getSpec();
+    }
+
+    /**
+     * Replace the spec of a label, reusing everything already calculated. Running animation and live
+     * text of the label are kept
+     *
+     * @param label The label to replace the spec of
+     */
+    void applyTo(Label label) {
+        label.set(mLabel);
+    }
+
+    // Post the prepared label to callback on main thread
+    static void deliver(final PreparedLabel prepared, final Callback callback) {
+        sMainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                callback.onLabelPrepared(prepared);
+            }
+        });
+    }
+
+    /**
+     * Callback receiving prepared labels
+     */
+    public interface Callback {
+        /**
+         * Called on main thread when a label is prepared
+         *
+         * @param prepared The prepared label
+         */
+        void onLabelPrepared(PreparedLabel prepared);
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.luxiliu.android.widget;
+
+import android.graphics.Bitmap;
+import android.graphics.BlurMaskFilter;
+import android.graphics.Canvas;
+import android.graphics.LinearGradient;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Rect;
+import android.graphics.Shader;
+import android.util.LruCache;
+
+
+/**
+ * RibbonShape keeps the shader, shadow and folded edge path of a ribbon for one label size, shared by
+ * all labels with the same ribbon and size. It's never modified after creation, so it can be drawn on
+ * any thread
+ */
+final class RibbonShape {
+    private static final double SQRT_2 = Math.sqrt(2);
+    private static final int DEFAULT_MAX_SIZE = 32;
+
+    private static final LruCache<Key, RibbonShape> sCache = new LruCache<>(DEFAULT_MAX_SIZE);
+
+    private final Paint mFillPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+    // Blurred ribbon rendered once as an alpha mask, tinted by shadow color when drawn
+    private Bitmap mShadowBitmap;
+    private Paint mShadowPaint;
+    private int mShadowLeft;
+    private int mShadowTop;
+
+    // Folded edges, outside of label rectangle so drawn without rotation
+    private Path mFoldPath;
+    private Paint mFoldPaint;
+
+    private RibbonShape(LabelRibbon ribbon, int distance, int height, LabelLayout.Gravity gravity, int size, Rect labelRect) {
+        if (ribbon.getStartColor() == ribbon.getEndColor()) {
+            mFillPaint.setColor(ribbon.getStartColor());
+        } else {
+            mFillPaint.setShader(new LinearGradient(labelRect.left, 0, labelRect.right, 0,
+                    ribbon.getStartColor(), ribbon.getEndColor(), Shader.TileMode.CLAMP));
+        }
+
+        if (ribbon.getShadowRadius() > 0 && !labelRect.isEmpty()) {
+            createShadow(ribbon.getShadowColor(), ribbon.getShadowRadius(), labelRect);
+        }
+
+        if (ribbon.getFoldSize() > 0) {
+            createFolds(ribbon.getFoldColor(), ribbon.getFoldSize(), distance, height, gravity, size);
+        }
+    }
+
+    /**
+     * Get the shape of ribbon for a label, creating it only if it's not cached yet
+     *
+     * @param ribbon    The ribbon of label
+     * @param distance  The distance from vertex to label's edge
+     * @param height    The height of label
+     * @param gravity   The gravity of label
+     * @param size      The side of the square containing label
+     * @param labelRect The label rectangle before rotation
+     * @return The shape of ribbon
+     */
+    static RibbonShape get(LabelRibbon ribbon, int distance, int height, LabelLayout.Gravity gravity, int size, Rect labelRect) {
+        Key key = new Key(ribbon, distance, height, gravity);
+        RibbonShape shape = sCache.get(key);
+        if (shape == null) {
+            shape = new RibbonShape(ribbon, distance, height, gravity, size, labelRect);
+            sCache.put(key, shape);
+        }
+
+        return shape;
+    }
+
+    /**
+     * Draw folded edges, on the canvas not rotated yet
+     *
+     * @param canvas The canvas to draw on
+     */
+    void drawFolds(Canvas canvas) {
+        if (mFoldPath != null) {
+            canvas.drawPath(mFoldPath, mFoldPaint);
+        }
+    }
+
+    /**
+     * Draw shadow and ribbon, on the canvas rotated along label
+     *
+     * @param canvas    The canvas to draw on
+     * @param labelRect The label rectangle before rotation
+     */
+    void draw(Canvas canvas, Rect labelRect) {
+        if (mShadowBitmap != null) {
+            canvas.drawBitmap(mShadowBitmap, mShadowLeft, mShadowTop, mShadowPaint);
+        }
+
+        canvas.drawRect(labelRect, mFillPaint);
+    }
+
+    private void createShadow(int color, int radius, Rect labelRect) {
+        // Blur is not hardware accelerated on older versions, so it's only rendered once in software
+        mShadowBitmap = Bitmap.createBitmap(labelRect.width() + 2 * radius, labelRect.height() + 2 * radius, Bitmap.Config.ALPHA_8);
+        Paint blurPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        blurPaint.setMaskFilter(new BlurMaskFilter(radius, BlurMaskFilter.Blur.NORMAL));
+        new Canvas(mShadowBitmap).drawRect(radius, radius, radius + labelRect.width(), radius + labelRect.height(), blurPaint);
+
+        // Dropped below the ribbon by half the radius
+        mShadowLeft = labelRect.left - radius;
+        mShadowTop = labelRect.top - radius + radius / 2;
+        mShadowPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+        mShadowPaint.setColor(color);
+    }
+
+    // Triangles below both ends of the outer edge, where ribbon meets the border of layout
+    private void createFolds(int color, int foldSize, int distance, int height, LabelLayout.Gravity gravity, int size) {
+        final float outer = (float) (SQRT_2 * (distance + height));
+        final float fold = Math.min(foldSize, outer);
+
+        // Calculated for top left, then mirrored to the corner of gravity
+        final boolean right = gravity == LabelLayout.Gravity.TOP_RIGHT || gravity == LabelLayout.Gravity.BOTTOM_RIGHT;
+        final boolean bottom = gravity == LabelLayout.Gravity.BOTTOM_RIGHT || gravity == LabelLayout.Gravity.BOTTOM_LEFT;
+        final float[] points = {
+                outer, 0, outer, fold, outer - fold, fold,
+                0, outer, fold, outer, fold, outer - fold
+        };
+        for (int i = 0; i < points.length; i += 2) {
+            if (right) {
+                points[i] = size - points[i];
+            }
+            if (bottom) {
+                points[i + 1] = size - points[i + 1];
+            }
+        }
+
+        mFoldPath = new Path();
+        for (int i = 0; i < points.length; i += 6) {
+            mFoldPath.moveTo(points[i], points[i + 1]);
+            mFoldPath.lineTo(points[i + 2], points[i + 3]);
+            mFoldPath.lineTo(points[i + 4], points[i + 5]);
+            mFoldPath.close();
+        }
+
+        mFoldPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mFoldPaint.setColor(color);
+    }
+
+    private static final class Key {
+        private final LabelRibbon mRibbon;
+        private final int mDistance;
+        private final int mHeight;
+        private final LabelLayout.Gravity mGravity;
+
+        Key(LabelRibbon ribbon, int distance, int height, LabelLayout.Gravity gravity) {
+            mRibbon = ribbon;
+            mDistance = distance;
+            mHeight = height;
+            mGravity = gravity;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            Key key = (Key) o;
+            return mDistance == key.mDistance
+                    && mHeight == key.mHeight
+                    && mGravity == key.mGravity
+                    && mRibbon.equals(key.mRibbon);
+        }
+
+        @Override
+        public int hashCode() {
+            int hashCode = mRibbon.hashCode();
+            hashCode = 31 * hashCode + mDistance;
+            hashCode = 31 * hashCode + mHeight;
+            hashCode = 31 * hashCode + mGravity.hashCode();
+            return hashCode;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.luxiliu.android.widget;
+
+import android.graphics.Typeface;
+import android.os.Build;
+import android.text.Layout;
+import android.text.PrecomputedText;
+import android.text.StaticLayout;
+import android.text.TextDirectionHeuristic;
+import android.text.TextDirectionHeuristics;
+import android.text.TextPaint;
+import android.text.TextUtils;
+
+import androidx.collection.LruCache;
+
+import java.util.concurrent.Executor;
+
+
+/**
+ * TextLayoutCache keeps shaped text layouts of labels drawn with {@link LabelLayout.RenderMode#LAYOUT},
+ * shared by all LabelLayouts. Layouts can be built on any thread
+ */
+public final class TextLayoutCache {
+    private static final int DEFAULT_MAX_SIZE = 64;
+
+    private static final LruCache<Key, Layout> sCache = new LruCache<>(DEFAULT_MAX_SIZE);
+
+    private TextLayoutCache() {
+    }
+
+    /**
+     * Set the maximum number of cached layouts
+     *
+     * @param maxSize The maximum number of cached layouts
+     */
+    public static void setMaxSize(int maxSize) {
+        sCache.resize(maxSize);
+    }
+
+    /**
+     * Get the maximum number of cached layouts
+     *
+     * @return The maximum number of cached layouts
+     */
+    public static int getMaxSize() {
+        return sCache.maxSize();
+    }
+
+    /**
+     * Release all cached layouts
+     */
+    public static void clear() {
+        sCache.evictAll();
+    }
+
+    /**
+     * Build the text layout of label on executor, so its first draw doesn't shape text on UI thread.
+     * Nothing happens unless label has text and is drawn with {@link LabelLayout.RenderMode#LAYOUT}
+     *
+     * @param spec     The label
+     * @param executor The executor building layout, usually a background one
+     */
+    public static void prefetch(final LabelSpec spec, Executor executor) {
+        if (spec.getText() == null || spec.getStyle().getRenderMode() != LabelLayout.RenderMode.LAYOUT) {
+            return;
+        }
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                getLayout(spec.getText(), spec.getStyle());
+            }
+        });
+    }
+
+    /**
+     * Get the text layout of label, building it only if it's not cached yet
+     *
+     * @param text  The text of label
+     * @param style The style of label
+     * @return The text layout, centered and ellipsized to fit the label
+     */
+    static Layout getLayout(String text, LabelStyle style) {
+        Key key = new Key(text, style);
+        Layout layout = sCache.get(key);
+        if (layout == null) {
+            layout = createLayout(text, style);
+            sCache.put(key, layout);
+        }
+
+        return layout;
+    }
+
+    /**
+     * Build a text layout not shared with other labels, without caching it
+     *
+     * @param text  The text of label
+     * @param style The style of label
+     * @return The text layout, centered and ellipsized to fit the label
+     */
+    static Layout createLayout(String text, LabelStyle style) {
+        // Layout keeps its paint, so it gets its own copy of the shared one
+        TextPaint paint = new TextPaint(style.getTextPaint());
+        int width = Math.max(LabelGeometry.calculateTextWidth(style.getDistance(), style.getHeight()), 0);
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            // Paragraph direction only, unlike RenderMode.PATH text of left to right scripts is not reversed
+            TextDirectionHeuristic textDirection;
+            switch (style.getTextDirection()) {
+                case RIGHT_TO_LEFT:
+                    textDirection = TextDirectionHeuristics.RTL;
+                    break;
+
+                case LOCALE:
+                    textDirection = TextDirectionHeuristics.LOCALE;
+                    break;
+
+                default:
+                    textDirection = TextDirectionHeuristics.FIRSTSTRONG_LTR;
+                    break;
+            }
+
+            CharSequence source = text;
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+                // Params must match the layout below, otherwise precomputed text is measured again
+                source = PrecomputedText.create(text, new PrecomputedText.Params.Builder(paint)
+                        .setTextDirection(textDirection)
+                        .setBreakStrategy(Layout.BREAK_STRATEGY_SIMPLE)
+                        .setHyphenationFrequency(Layout.HYPHENATION_FREQUENCY_NONE)
+                        .build());
+            }
+
+            return StaticLayout.Builder.obtain(source, 0, source.length(), paint, width)
+                    .setAlignment(Layout.Alignment.ALIGN_CENTER)
+                    .setTextDirection(textDirection)
+                    .setBreakStrategy(Layout.BREAK_STRATEGY_SIMPLE)
+                    .setHyphenationFrequency(Layout.HYPHENATION_FREQUENCY_NONE)
+                    .setIncludePad(false)
+                    .setMaxLines(style.getMaxLines())
+                    .setEllipsize(TextUtils.TruncateAt.END)
+                    .build();
+        } else {
+            // Max lines can't be set before Android M, only a single line label is ellipsized
+            CharSequence source = style.getMaxLines() == 1 ? TextUtils.ellipsize(text, paint, width, TextUtils.TruncateAt.END) : text;
+            return new StaticLayout(source, paint, width, Layout.Alignment.ALIGN_CENTER, 1, 0, false);
+        }
+    }
+
+    private static final class Key {
+        private final String mText;
+        private final int mDistance;
+        private final int mHeight;
+        private final int mTextSize;
+        private final int mTextColor;
+        private final Typeface mTypeface;
+        private final LabelLayout.TextDirection mTextDirection;
+        private final int mMaxLines;
+
+        Key(String text, LabelStyle style) {
+            mText = text;
+            mDistance = style.getDistance();
+            mHeight = style.getHeight();
+            mTextSize = style.getTextSize();
+            mTextColor = style.getTextColor();
+            mTypeface = style.getTypeface();
+            mTextDirection = style.getTextDirection();
+            mMaxLines = style.getMaxLines();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            Key key = (Key) o;
+            return mDistance == key.mDistance
+                    && mHeight == key.mHeight
+                    && mTextSize == key.mTextSize
+                    && mTextColor == key.mTextColor
+                    && mTextDirection == key.mTextDirection
+                    && mMaxLines == key.mMaxLines
+                    && mText.equals(key.mText)
+                    && (mTypeface != null ? mTypeface.equals(key.mTypeface) : key.mTypeface == null);
+        }
+
+        @Override
+        public int hashCode() {
+            int hashCode = mText.hashCode();
+            hashCode = 31 * hashCode + mDistance;
+            hashCode = 31 * hashCode + mHeight;
+            hashCode = 31 * hashCode + mTextSize;
+            hashCode = 31 * hashCode + mTextColor;
+            hashCode = 31 * hashCode + (mTypeface != null ? mTypeface.hashCode() : 0);
+            hashCode = 31 * hashCode + mTextDirection.hashCode();
+            hashCode = 31 * hashCode + mMaxLines;
+            return hashCode;
+        }
+    }
+}
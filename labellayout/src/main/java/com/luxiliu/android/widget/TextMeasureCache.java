@@ -0,0 +1,138 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.luxiliu.android.widget;
+
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+
+import androidx.collection.LruCache;
+
+
+/**
+ * TextMeasureCache keeps measured label text bounds, shared by all LabelLayouts
+ */
+public final class TextMeasureCache {
+    private static final int DEFAULT_MAX_SIZE = 256;
+
+    private static final LruCache<Key, Rect> sCache = new LruCache<>(DEFAULT_MAX_SIZE);
+
+    private TextMeasureCache() {
+    }
+
+    /**
+     * Set the maximum number of cached measurements
+     *
+     * @param maxSize The maximum number of cached measurements
+     */
+    public static void setMaxSize(int maxSize) {
+        sCache.resize(maxSize);
+    }
+
+    /**
+     * Get the maximum number of cached measurements
+     *
+     * @return The maximum number of cached measurements
+     */
+    public static int getMaxSize() {
+        return sCache.maxSize();
+    }
+
+    /**
+     * Get the number of measurements served from cache
+     *
+     * @return The number of cache hits
+     */
+    public static int getHitCount() {
+        return sCache.hitCount();
+    }
+
+    /**
+     * Get the number of measurements not found in cache
+     *
+     * @return The number of cache misses
+     */
+    public static int getMissCount() {
+        return sCache.missCount();
+    }
+
+    /**
+     * Release all cached measurements
+     */
+    public static void clear() {
+        sCache.evictAll();
+    }
+
+    /**
+     * Get text bounds, measuring with paint only if it's not cached yet
+     *
+     * @param text   The text to measure
+     * @param paint  The paint with text size and typeface set
+     * @param bounds The rect receiving text bounds
+     */
+    static void getTextBounds(String text, Paint paint, Rect bounds) {
+        // Text made of cached glyphs only, e.g. a price, is looked up without filling this cache
+        if (GlyphRunCache.getTextBounds(text, paint, bounds)) {
+            return;
+        }
+
+        Key key = new Key(text, paint.getTextSize(), paint.getTypeface());
+        Rect cached = sCache.get(key);
+        if (cached != null) {
+            bounds.set(cached);
+            LabelLayoutMetrics.reportTextMeasure(true);
+        } else {
+            paint.getTextBounds(text, 0, text.length(), bounds);
+            sCache.put(key, new Rect(bounds));
+            LabelLayoutMetrics.reportTextMeasure(false);
+        }
+    }
+
+    private static final class Key {
+        private final String mText;
+        private final float mTextSize;
+        private final Typeface mTypeface;
+
+        Key(String text, float textSize, Typeface typeface) {
+            mText = text;
+            mTextSize = textSize;
+            mTypeface = typeface;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            Key key = (Key) o;
+            return mTextSize == key.mTextSize
+                    && mText.equals(key.mText)
+                    && (mTypeface != null ? mTypeface.equals(key.mTypeface) : key.mTypeface == null);
+        }
+
+        @Override
+        public int hashCode() {
+            int hashCode = mText.hashCode();
+            hashCode = 31 * hashCode + Float.floatToIntBits(mTextSize);
+            hashCode = 31 * hashCode + (mTypeface != null ? mTypeface.hashCode() : 0);
+            return hashCode;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.luxiliu.android.widget;
+
+import android.graphics.Paint;
+import android.graphics.Rect;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * AutoSizeCacheTest checks that auto size picks the largest text size which fits the label
+ */
+@RunWith(RobolectricTestRunner.class)
+public class AutoSizeCacheTest {
+    private static final String[] TEXTS = {"SALE", "NEW", "50% OFF", "W", "LIMITED EDITION"};
+
+    @Before
+    public void setUp() {
+        AutoSizeCache.clear();
+    }
+
+    @Test
+    public void resolvedSizeIsTheLargestFitting() {
+        for (String text : TEXTS) {
+            for (int height = 10; height <= 40; height += 10) {
+                LabelStyle style = new LabelStyle.Builder()
+                        .setDistance(20)
+                        .setHeight(height)
+                        .setAutoSize(true)
+                        .setAutoSizeTextSizeRange(1, 200)
+                        .build();
+
+                final int width = LabelGeometry.calculateTextWidth(style.getDistance(), style.getHeight());
+                final int textSize = AutoSizeCache.resolve(text, style).getTextSize();
+                final int cap = Math.min(style.getAutoSizeMaxTextSize(), 2 * (width + height));
+
+                assertTrue(text, textSize == 1 || fits(style, text, textSize, width, height));
+                assertTrue(text, textSize == cap || !fits(style, text, textSize + 1, width, height));
+            }
+        }
+    }
+
+    @Test
+    public void fixedRangeResolvesToIt() {
+        LabelStyle style = new LabelStyle.Builder()
+                .setAutoSize(true)
+                .setAutoSizeTextSizeRange(7, 7)
+                .build();
+
+        assertEquals(7, AutoSizeCache.resolve("LIMITED EDITION", style).getTextSize());
+    }
+
+    @Test
+    public void unchangedSizeKeepsStyle() {
+        LabelStyle style = new LabelStyle.Builder()
+                .setAutoSize(true)
+                .setAutoSizeTextSizeRange(1, 200)
+                .build();
+        LabelStyle resolved = AutoSizeCache.resolve("SALE", style);
+
+        assertSame(resolved, AutoSizeCache.resolve("SALE", resolved));
+    }
+
+    private static boolean fits(LabelStyle style, String text, int textSize, int width, int height) {
+        Paint paint = new Paint(style.getTextPaint());
+        paint.setTextSize(textSize);
+        Rect bounds = new Rect();
+        paint.getTextBounds(text, 0, text.length(), bounds);
+        return bounds.width() <= width && bounds.height() <= height;
+    }
+}
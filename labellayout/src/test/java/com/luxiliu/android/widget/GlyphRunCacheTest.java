@@ -0,0 +1,112 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.luxiliu.android.widget;
+
+import android.graphics.Paint;
+import android.graphics.Rect;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * GlyphRunCacheTest checks text bounds looked up from glyph tables against a paint with fixed metrics
+ */
+@RunWith(RobolectricTestRunner.class)
+public class GlyphRunCacheTest {
+    private final Paint mPaint = new GlyphPaint();
+    private final Rect mBounds = new Rect();
+
+    @Before
+    public void setUp() {
+        GlyphRunCache.clear();
+    }
+
+    @After
+    public void tearDown() {
+        GlyphRunCache.setGlyphs(GlyphRunCache.DEFAULT_GLYPHS);
+    }
+
+    @Test
+    public void boundsSpanFromFirstToLastGlyph() {
+        assertTrue(GlyphRunCache.getTextBounds("1:05", mPaint, mBounds));
+        // Advances of '1', ':' and '0', then the right of '5'
+        assertEquals(new Rect(1, -12, 10 + 4 + 10 + 9, 0), mBounds);
+    }
+
+    @Test
+    public void boundsCoverTallestAndLowestGlyph() {
+        assertTrue(GlyphRunCache.getTextBounds("5%,", mPaint, mBounds));
+        assertEquals(new Rect(1, -14, 10 + 6 + 5, 3), mBounds);
+    }
+
+    @Test
+    public void bufferAndStringAgree() {
+        final char[] buffer = "xx12.50xx".toCharArray();
+        final Rect bounds = new Rect();
+
+        assertTrue(GlyphRunCache.getTextBounds(buffer, 2, 5, mPaint, bounds));
+        assertTrue(GlyphRunCache.getTextBounds("12.50", mPaint, mBounds));
+        assertEquals(mBounds, bounds);
+    }
+
+    @Test
+    public void otherCharactersAreNotMeasured() {
+        assertFalse(GlyphRunCache.getTextBounds("SALE", mPaint, mBounds));
+        assertFalse(GlyphRunCache.getTextBounds("10 OFF", mPaint, mBounds));
+        assertFalse(GlyphRunCache.getTextBounds("", mPaint, mBounds));
+    }
+
+    @Test
+    public void nullGlyphsDisableLookup() {
+        GlyphRunCache.setGlyphs(null);
+
+        assertEquals("", GlyphRunCache.getGlyphs());
+        assertFalse(GlyphRunCache.getTextBounds("10", mPaint, mBounds));
+    }
+
+    // Paint measuring glyphs with fixed metrics: digits are 10 wide, ':' is 4 and others are 6
+    private static final class GlyphPaint extends Paint {
+        @Override
+        public int getTextWidths(char[] text, int index, int count, float[] widths) {
+            for (int i = 0; i < count; i++) {
+                widths[i] = advance(text[index + i]);
+            }
+            return count;
+        }
+
+        @Override
+        public void getTextBounds(char[] text, int index, int count, Rect bounds) {
+            final char c = text[index];
+            bounds.set(1, top(c), advance(c) - 1, c == ',' ? 3 : 0);
+        }
+
+        private static int advance(char c) {
+            return Character.isDigit(c) ? 10 : c == ':' ? 4 : 6;
+        }
+
+        private static int top(char c) {
+            return Character.isDigit(c) ? -12 : c == '%' ? -14 : -8;
+        }
+    }
+}
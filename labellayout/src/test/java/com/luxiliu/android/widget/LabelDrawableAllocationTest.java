@@ -0,0 +1,152 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.luxiliu.android.widget;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Rect;
+import android.graphics.drawable.ColorDrawable;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+
+
+/**
+ * LabelDrawableAllocationTest draws labels repeatedly and fails if drawing allocates anything
+ */
+@RunWith(RobolectricTestRunner.class)
+public class LabelDrawableAllocationTest {
+    private static final int WARMUP_DRAWS = 200;
+    private static final int DRAWS = 2000;
+
+    @Test
+    public void drawDoesNotAllocate() {
+        assertDrawDoesNotAllocate(createDrawable(false));
+    }
+
+    @Test
+    public void cachedDrawDoesNotAllocate() {
+        assertDrawDoesNotAllocate(createDrawable(true));
+    }
+
+    private static LabelDrawable createDrawable(boolean cacheEnabled) {
+        LabelStyle style = new LabelStyle.Builder()
+                .setDistance(20)
+                .setHeight(20)
+                .setBackground(new ColorDrawable(Color.BLACK))
+                .setTextSize(12)
+                .setTextColor(Color.WHITE)
+                .build();
+
+        LabelDrawable drawable = new LabelDrawable(new LabelSpec("SALE", style));
+        drawable.addLabel(new LabelSpec("NEW", new LabelStyle.Builder(style).setGravity(LabelLayout.Gravity.BOTTOM_RIGHT).build()));
+        drawable.setCacheEnabled(cacheEnabled);
+        drawable.setBounds(0, 0, 200, 200);
+        return drawable;
+    }
+
+    private static void assertDrawDoesNotAllocate(LabelDrawable drawable) {
+        final Canvas canvas = new DiscardingCanvas();
+        for (int i = 0; i < WARMUP_DRAWS; i++) {
+            drawable.draw(canvas);
+        }
+
+        // Reading the counter may allocate itself, so it's measured without drawing first
+        final long overheadStart = allocatedBytes();
+        final long overhead = allocatedBytes() - overheadStart;
+
+        final long start = allocatedBytes();
+        for (int i = 0; i < DRAWS; i++) {
+            drawable.draw(canvas);
+        }
+        final long allocated = allocatedBytes() - start - overhead;
+
+        assertEquals("Bytes allocated by " + DRAWS + " draws", 0, allocated);
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    // Canvas discarding all drawing, so only allocations of labels are counted
+    private static final class DiscardingCanvas extends Canvas {
+        @Override
+        public int save() {
+            return 1;
+        }
+
+        @Override
+        public int saveLayer(float left, float top, float right, float bottom, Paint paint, int saveFlags) {
+            return 1;
+        }
+
+        @Override
+        public void restoreToCount(int saveCount) {
+        }
+
+        @Override
+        public void restore() {
+        }
+
+        @Override
+        public void translate(float dx, float dy) {
+        }
+
+        @Override
+        public void rotate(float degrees) {
+        }
+
+        @Override
+        public boolean clipRect(Rect rect) {
+            return true;
+        }
+
+        @Override
+        public boolean quickReject(float left, float top, float right, float bottom, EdgeType type) {
+            return false;
+        }
+
+        @Override
+        public boolean isHardwareAccelerated() {
+            return false;
+        }
+
+        @Override
+        public void drawRect(Rect rect, Paint paint) {
+        }
+
+        @Override
+        public void drawBitmap(Bitmap bitmap, float left, float top, Paint paint) {
+        }
+
+        @Override
+        public void drawTextOnPath(String text, Path path, float hOffset, float vOffset, Paint paint) {
+        }
+
+        @Override
+        public void drawText(CharSequence text, int start, int end, float x, float y, Paint paint) {
+        }
+    }
+}
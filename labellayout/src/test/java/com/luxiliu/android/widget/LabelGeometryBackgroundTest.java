@@ -0,0 +1,148 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.luxiliu.android.widget;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.ColorFilter;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.drawable.ColorDrawable;
+import android.graphics.drawable.Drawable;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * LabelGeometryBackgroundTest checks background bounds of every background scale type
+ */
+@RunWith(RobolectricTestRunner.class)
+public class LabelGeometryBackgroundTest {
+    private static final int INTRINSIC_SIZE = 5;
+
+    @Test
+    public void fitScalesToLabelHeight() {
+        LabelGeometry geometry = update(LabelLayout.BackgroundScaleType.FIT, new IntrinsicDrawable());
+
+        assertCentered(geometry, 20, 20);
+        assertFalse(geometry.backgroundClipped);
+        assertFalse(geometry.backgroundTiled);
+    }
+
+    @Test
+    public void centerInsideNeverScalesUp() {
+        LabelGeometry geometry = update(LabelLayout.BackgroundScaleType.CENTER_INSIDE, new IntrinsicDrawable());
+
+        assertCentered(geometry, INTRINSIC_SIZE, INTRINSIC_SIZE);
+        assertFalse(geometry.backgroundClipped);
+    }
+
+    @Test
+    public void centerKeepsIntrinsicSize() {
+        LabelGeometry geometry = update(LabelLayout.BackgroundScaleType.CENTER, new IntrinsicDrawable());
+
+        assertCentered(geometry, INTRINSIC_SIZE, INTRINSIC_SIZE);
+        assertFalse(geometry.backgroundClipped);
+    }
+
+    @Test
+    public void fillScalesToLabelWidthAndClips() {
+        LabelGeometry geometry = update(LabelLayout.BackgroundScaleType.FILL, new IntrinsicDrawable());
+
+        assertCentered(geometry, 80, 80);
+        assertTrue(geometry.backgroundClipped);
+    }
+
+    @Test
+    public void tileStartsAtTopLeft() {
+        LabelGeometry geometry = update(LabelLayout.BackgroundScaleType.TILE, new IntrinsicDrawable());
+        Rect labelRect = geometry.labelRect;
+
+        assertEquals(new Rect(labelRect.left, labelRect.top, labelRect.left + INTRINSIC_SIZE, labelRect.top + INTRINSIC_SIZE),
+                geometry.backgroundBounds);
+        assertTrue(geometry.backgroundTiled);
+        assertTrue(geometry.backgroundClipped);
+    }
+
+    @Test
+    public void colorFillsLabel() {
+        LabelGeometry geometry = update(LabelLayout.BackgroundScaleType.CENTER, new ColorDrawable(Color.BLACK));
+
+        assertEquals(geometry.labelRect, geometry.backgroundBounds);
+        assertFalse(geometry.backgroundClipped);
+        assertFalse(geometry.backgroundTiled);
+    }
+
+    private static LabelGeometry update(LabelLayout.BackgroundScaleType scaleType, Drawable background) {
+        LabelStyle style = new LabelStyle.Builder()
+                .setDistance(20)
+                .setHeight(20)
+                .setBackground(background)
+                .setBackgroundScaleType(scaleType)
+                .build();
+
+        LabelGeometry geometry = new LabelGeometry();
+        geometry.update(style, null);
+        return geometry;
+    }
+
+    private static void assertCentered(LabelGeometry geometry, int width, int height) {
+        Rect labelRect = geometry.labelRect;
+        Rect bounds = geometry.backgroundBounds;
+
+        assertEquals(80, labelRect.width());
+        assertEquals(20, labelRect.height());
+        assertEquals(width, bounds.width());
+        assertEquals(height, bounds.height());
+        assertEquals(labelRect.centerX(), bounds.centerX());
+        assertEquals(labelRect.centerY(), bounds.centerY());
+    }
+
+    private static final class IntrinsicDrawable extends Drawable {
+        @Override
+        public int getIntrinsicWidth() {
+            return INTRINSIC_SIZE;
+        }
+
+        @Override
+        public int getIntrinsicHeight() {
+            return INTRINSIC_SIZE;
+        }
+
+        @Override
+        public void draw(Canvas canvas) {
+        }
+
+        @Override
+        public void setAlpha(int alpha) {
+        }
+
+        @Override
+        public void setColorFilter(ColorFilter colorFilter) {
+        }
+
+        @Override
+        public int getOpacity() {
+            return PixelFormat.TRANSLUCENT;
+        }
+    }
+}
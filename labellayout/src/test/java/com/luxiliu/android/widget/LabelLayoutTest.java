@@ -0,0 +1,53 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.luxiliu.android.widget;
+
+import android.graphics.Color;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import static org.junit.Assert.assertEquals;
+
+
+/**
+ * LabelLayoutTest checks that layouts which are never attached don't register with the shared clocks
+ */
+@RunWith(RobolectricTestRunner.class)
+public class LabelLayoutTest {
+    @Test
+    public void liveTextOfDetachedLayoutIsNotTicked() {
+        LabelLayout labelLayout = new LabelLayout(RuntimeEnvironment.application);
+        final int scheduled = Robolectric.getForegroundThreadScheduler().size();
+
+        labelLayout.setLabelLiveText(LiveLabelText.countdown(System.currentTimeMillis() + 60000));
+
+        assertEquals(scheduled, Robolectric.getForegroundThreadScheduler().size());
+    }
+
+    @Test
+    public void animationOfDetachedLayoutRunsNoFrames() {
+        LabelLayout labelLayout = new LabelLayout(RuntimeEnvironment.application);
+        final int scheduled = Robolectric.getForegroundThreadScheduler().size();
+
+        labelLayout.startLabelAnimation(LabelAnimation.pulseTextColor(Color.RED, 1000, LabelAnimation.INFINITE));
+
+        assertEquals(scheduled, Robolectric.getForegroundThreadScheduler().size());
+    }
+}
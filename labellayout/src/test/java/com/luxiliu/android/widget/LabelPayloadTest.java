@@ -0,0 +1,99 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.luxiliu.android.widget;
+
+import android.graphics.Color;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * LabelPayloadTest checks the changes calculated between labels and applying them
+ */
+@RunWith(RobolectricTestRunner.class)
+public class LabelPayloadTest {
+    private final LabelStyle mStyle = new LabelStyle.Builder().setTextColor(Color.WHITE).build();
+    private final LabelStyle mOtherStyle = new LabelStyle.Builder(mStyle).setTextColor(Color.BLACK).build();
+
+    @Test
+    public void sameLabelsHaveNoPayload() {
+        assertNull(LabelPayload.diff(new LabelSpec("SALE", mStyle), new LabelSpec("SALE", mStyle)));
+        assertNull(LabelPayload.diff(new LabelSpec(null, mStyle), new LabelSpec(null, mStyle)));
+    }
+
+    @Test
+    public void textChangeOnly() {
+        LabelPayload payload = LabelPayload.diff(2, new LabelSpec("SALE", mStyle), new LabelSpec("NEW", mStyle));
+
+        assertEquals(2, payload.getIndex());
+        assertTrue(payload.isTextChanged());
+        assertEquals("NEW", payload.getText());
+        assertNull(payload.getStyle());
+    }
+
+    @Test
+    public void styleChangeOnly() {
+        LabelPayload payload = LabelPayload.diff(new LabelSpec("SALE", mStyle), new LabelSpec("SALE", mOtherStyle));
+
+        assertEquals(0, payload.getIndex());
+        assertFalse(payload.isTextChanged());
+        assertSame(mOtherStyle, payload.getStyle());
+    }
+
+    @Test
+    public void textRemoved() {
+        LabelPayload payload = LabelPayload.diff(new LabelSpec("SALE", mStyle), new LabelSpec(null, mStyle));
+
+        assertTrue(payload.isTextChanged());
+        assertNull(payload.getText());
+        assertNull(payload.apply(new LabelSpec("SALE", mStyle)).getText());
+    }
+
+    @Test
+    public void applyingPayloadsInOrderReachesLastLabel() {
+        LabelSpec first = new LabelSpec("SALE", mStyle);
+        LabelSpec second = new LabelSpec("NEW", mStyle);
+        LabelSpec third = new LabelSpec("NEW", mOtherStyle);
+
+        LabelSpec spec = LabelPayload.diff(first, second).apply(first);
+        spec = LabelPayload.diff(second, third).apply(spec);
+
+        assertEquals(third, spec);
+    }
+
+    @Test
+    public void onlyLabelPayloads() {
+        List<Object> payloads = new ArrayList<>();
+        assertFalse(LabelPayload.containsOnlyLabelPayloads(payloads));
+
+        payloads.add(LabelPayload.diff(new LabelSpec("SALE", mStyle), new LabelSpec("NEW", mStyle)));
+        assertTrue(LabelPayload.containsOnlyLabelPayloads(payloads));
+
+        payloads.add("other");
+        assertFalse(LabelPayload.containsOnlyLabelPayloads(payloads));
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.luxiliu.android.widget;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.drawable.ColorDrawable;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * LabelRendererTest checks results of drawing labels onto bitmaps in parallel
+ */
+@RunWith(RobolectricTestRunner.class)
+public class LabelRendererTest {
+    private static final Executor DIRECT_EXECUTOR = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    @Test
+    public void failedDrawIsReported() {
+        LabelStyle style = new LabelStyle.Builder()
+                .setDistance(20)
+                .setHeight(20)
+                .setBackground(new FailingDrawable())
+                .build();
+        LabelRenderer renderer = new LabelRenderer();
+        renderer.setCacheEnabled(false);
+        RecordingCallback callback = new RecordingCallback();
+
+        renderer.drawAsync(Collections.singletonList(Bitmap.createBitmap(200, 200, Bitmap.Config.ARGB_8888)),
+                Collections.singletonList(new LabelSpec("SALE", style)), DIRECT_EXECUTOR, callback);
+
+        assertNull(callback.mDrawn);
+        assertTrue(callback.mError instanceof IllegalStateException);
+    }
+
+    // Background failing to draw, without constant state so the renderer draws it as it is
+    private static final class FailingDrawable extends ColorDrawable {
+        @Override
+        public ConstantState getConstantState() {
+            return null;
+        }
+
+        @Override
+        public void draw(Canvas canvas) {
+            throw new IllegalStateException();
+        }
+    }
+
+    private static final class RecordingCallback implements LabelRenderer.Callback {
+        List<Bitmap> mDrawn;
+        Throwable mError;
+
+        @Override
+        public void onLabelsDrawn(List<Bitmap> bitmaps) {
+            mDrawn = bitmaps;
+        }
+
+        @Override
+        public void onLabelsFailed(List<Bitmap> bitmaps, Throwable error) {
+            mError = error;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.luxiliu.android.widget;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Rect;
+import android.graphics.drawable.ColorDrawable;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * LabelTest checks the bounds and drawing of a single label as its spec changes
+ */
+@RunWith(RobolectricTestRunner.class)
+public class LabelTest {
+    @Test
+    public void textColorChangeIsDrawn() {
+        LabelStyle style = new LabelStyle.Builder()
+                .setDistance(20)
+                .setHeight(20)
+                .setTextColor(Color.WHITE)
+                .build();
+        Label label = new Label(new LabelSpec("SALE", style));
+        RecordingCanvas canvas = new RecordingCanvas();
+
+        label.draw(canvas, 200, 200, false);
+        assertEquals(Color.WHITE, canvas.mColor);
+
+        label.setSpec(new LabelSpec("SALE", new LabelStyle.Builder(style).setTextColor(Color.RED).build()));
+        label.draw(canvas, 200, 200, false);
+        assertEquals(Color.RED, canvas.mColor);
+    }
+
+    @Test
+    public void boundsIncludeRibbonShadow() {
+        LabelStyle style = new LabelStyle.Builder()
+                .setDistance(20)
+                .setHeight(20)
+                .setGravity(LabelLayout.Gravity.BOTTOM_RIGHT)
+                .build();
+        LabelStyle shadowStyle = new LabelStyle.Builder(style)
+                .setRibbon(new LabelRibbon.Builder().setShadow(Color.BLACK, 4).build())
+                .build();
+        Rect bounds = new Rect();
+        Rect shadowBounds = new Rect();
+
+        new Label(new LabelSpec("SALE", style)).getBounds(200, 200, bounds);
+        new Label(new LabelSpec("SALE", shadowStyle)).getBounds(200, 200, shadowBounds);
+
+        // Blur radius and half of it as drop, along the diagonal
+        assertEquals(LabelGeometry.calculateExtent(20, 20 + 4 + 2), shadowBounds.width());
+        assertEquals(new Rect(200 - shadowBounds.width(), 200 - shadowBounds.height(), 200, 200), shadowBounds);
+        assertTrue(shadowBounds.contains(bounds));
+    }
+
+    @Test
+    public void rightToLeftReversesLeftToRightScripts() {
+        assertEquals("ELAS", drawText("SALE", LabelLayout.TextDirection.RIGHT_TO_LEFT));
+    }
+
+    @Test
+    public void localeKeepsLeftToRightScripts() {
+        Locale locale = Locale.getDefault();
+        Locale.setDefault(new Locale("ar"));
+        try {
+            assertEquals("SALE", drawText("SALE", LabelLayout.TextDirection.LOCALE));
+        } finally {
+            Locale.setDefault(locale);
+        }
+    }
+
+    @Test
+    public void preparedLabelKeepsAnimationAndLiveText() {
+        LabelStyle style = new LabelStyle.Builder()
+                .setDistance(20)
+                .setHeight(20)
+                .build();
+        Label label = new Label(new LabelSpec("SALE", style));
+        label.startAnimation(LabelAnimation.pulseTextColor(Color.RED, 1000, LabelAnimation.INFINITE));
+        label.setLiveText(LiveLabelText.countdown(System.currentTimeMillis()));
+
+        new LabelSpec("NEW", style).prepare(true).applyTo(label);
+        RecordingCanvas canvas = new RecordingCanvas();
+        label.draw(canvas, 200, 200, false);
+
+        assertEquals("NEW", label.getSpec().getText());
+        assertTrue(label.isAnimating());
+        assertTrue(label.hasLiveText());
+        assertEquals("00:00:00", canvas.mText);
+    }
+
+    @Test
+    public void backgroundSharingConstantStateIsReplaced() {
+        ColorDrawable background = new ColorDrawable(Color.BLACK);
+        ColorDrawable newBackground = new ColorDrawable(Color.BLACK);
+        LabelStyle style = new LabelStyle.Builder()
+                .setDistance(20)
+                .setHeight(20)
+                .setBackground(background)
+                .build();
+        LabelDrawable drawable = new LabelDrawable(new LabelSpec("SALE", style));
+
+        drawable.setLabel(0, new LabelSpec("SALE", new LabelStyle.Builder(style).setBackground(newBackground).build()));
+
+        assertSame(newBackground, drawable.getLabel(0).getStyle().getBackground());
+    }
+
+    private static String drawText(String text, LabelLayout.TextDirection textDirection) {
+        LabelStyle style = new LabelStyle.Builder()
+                .setDistance(20)
+                .setHeight(20)
+                .setTextDirection(textDirection)
+                .build();
+        RecordingCanvas canvas = new RecordingCanvas();
+
+        new Label(new LabelSpec(text, style)).draw(canvas, 200, 200, false);
+        return canvas.mText;
+    }
+
+    // Canvas remembering the text drawn along the bisector and its color
+    private static final class RecordingCanvas extends Canvas {
+        String mText;
+        int mColor;
+
+        @Override
+        public void drawTextOnPath(String text, Path path, float hOffset, float vOffset, Paint paint) {
+            mText = text;
+            mColor = paint.getColor();
+        }
+
+        @Override
+        public void drawTextOnPath(char[] text, int index, int count, Path path, float hOffset, float vOffset, Paint paint) {
+            mText = new String(text, index, count);
+            mColor = paint.getColor();
+        }
+    }
+}
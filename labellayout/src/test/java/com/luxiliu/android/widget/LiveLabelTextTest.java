@@ -0,0 +1,57 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.luxiliu.android.widget;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+
+/**
+ * LiveLabelTextTest checks the text formatted by countdowns
+ */
+public class LiveLabelTextTest {
+    private static final long END_TIME_MILLIS = 1000000000000L;
+
+    @Test
+    public void countdownFormatsHoursMinutesSeconds() {
+        long remaining = (2 * 3600 + 13 * 60 + 45) * 1000L;
+        assertEquals("02:13:45", format(END_TIME_MILLIS, END_TIME_MILLIS - remaining));
+    }
+
+    @Test
+    public void countdownRoundsUp() {
+        assertEquals("00:00:01", format(END_TIME_MILLIS, END_TIME_MILLIS - 1));
+        assertEquals("00:01:00", format(END_TIME_MILLIS, END_TIME_MILLIS - 59001));
+    }
+
+    @Test
+    public void countdownStaysAtZeroAfterEnd() {
+        assertEquals("00:00:00", format(END_TIME_MILLIS, END_TIME_MILLIS));
+        assertEquals("00:00:00", format(END_TIME_MILLIS, END_TIME_MILLIS + 5000));
+    }
+
+    @Test
+    public void countdownGrowsPastTwoDigitHours() {
+        assertEquals("123:00:00", format(END_TIME_MILLIS, END_TIME_MILLIS - 123 * 3600 * 1000L));
+    }
+
+    private static String format(long endTimeMillis, long currentTimeMillis) {
+        char[] buffer = new char[LiveLabelText.MAX_LENGTH];
+        int length = LiveLabelText.countdown(endTimeMillis).format(currentTimeMillis, buffer);
+        return new String(buffer, 0, length);
+    }
+}
@@ -182,13 +182,15 @@ public class MainActivity extends AppCompatActivity {
         AppCompatSpinner textColorSpinner = findViewById(R.id.text_color_spinner);
         AppCompatSpinner textDirectionSpinner = findViewById(R.id.direction_spinner);
 
-        mLabelLayout.setLabelDistance(distanceSeekBar.getProgress());
-        mLabelLayout.setLabelHeight(heightSeekBar.getProgress());
-        mLabelLayout.setLabelBackground(new ColorDrawable(Color.parseColor(colorSpinner.getSelectedItem().toString().toLowerCase())));
-        mLabelLayout.setLabelGravity((LabelLayout.Gravity) gravitySpinner.getSelectedItem());
-        mLabelLayout.setLabelText(editText.getText().toString());
-        mLabelLayout.setLabelTextSize(textSizeSeekBar.getProgress());
-        mLabelLayout.setLabelTextColor(Color.parseColor(textColorSpinner.getSelectedItem().toString().toLowerCase()));
-        mLabelLayout.setLabelTextDirection((LabelLayout.TextDirection) textDirectionSpinner.getSelectedItem());
+        mLabelLayout.edit()
+                .distance(distanceSeekBar.getProgress())
+                .height(heightSeekBar.getProgress())
+                .background(new ColorDrawable(Color.parseColor(colorSpinner.getSelectedItem().toString().toLowerCase())))
+                .gravity((LabelLayout.Gravity) gravitySpinner.getSelectedItem())
+                .text(editText.getText().toString())
+                .textSize(textSizeSeekBar.getProgress())
+                .textColor(Color.parseColor(textColorSpinner.getSelectedItem().toString().toLowerCase()))
+                .textDirection((LabelLayout.TextDirection) textDirectionSpinner.getSelectedItem())
+                .apply();
     }
 }